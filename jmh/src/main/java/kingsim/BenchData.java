@@ -0,0 +1,92 @@
+package kingsim;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Generates the tasks and user input the benchmarks run on. The same seed always gives
+ * the same data, so runs on different commits measure the same work.
+ */
+final class BenchData {
+    private static final String[] SYLLABLES = {
+        "ka", "lo", "mi", "ren", "to", "sa", "vi", "nor", "bel", "qu", "ix", "dra", "pe", "sun", "ho", "zet"
+    };
+
+    private BenchData() {
+    }
+
+    /**
+     * Returns a list of todos, deadlines and events in turn, with random descriptions
+     * and times.
+     *
+     * @param size Number of tasks.
+     * @param seed Seed of the random descriptions and times.
+     * @return Generated tasks.
+     */
+    static ArrayList<Task> tasks(int size, long seed) {
+        Random random = new Random(seed);
+        ArrayList<Task> tasks = new ArrayList<>(size);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            String description = description(random);
+            LocalDateTime time = start.plusMinutes(random.nextInt(500_000));
+            switch (i % 3) {
+            case 0:
+                tasks.add(new Todo(description));
+                break;
+            case 1:
+                tasks.add(new Deadline(description, time));
+                break;
+            default:
+                tasks.add(new Event(description, time, time.plusHours(2)));
+                break;
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns commands that add a todo, a deadline or an event in turn, as a user would
+     * type them.
+     *
+     * @param count Number of commands.
+     * @param seed Seed of the random descriptions and dates.
+     * @return Generated commands.
+     */
+    static String[] addCommands(int count, long seed) {
+        Random random = new Random(seed);
+        String[] commands = new String[count];
+        for (int i = 0; i < count; i++) {
+            String description = description(random);
+            switch (i % 3) {
+            case 0:
+                commands[i] = "todo " + description;
+                break;
+            case 1:
+                commands[i] = "deadline " + description + " /by 2026-03-" + (10 + i % 18) + " 1800";
+                break;
+            default:
+                commands[i] = "event " + description + " /from 2026-03-10 1400 /to 2026-03-" + (10 + i % 18) + " 1600";
+                break;
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Returns a description of four words made of random syllables.
+     */
+    static String description(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int word = 0; word < 4; word++) {
+            if (word > 0) {
+                sb.append(' ');
+            }
+            for (int s = 0; s < 3; s++) {
+                sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package kingsim;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Parser} on valid user input. Each call parses the next of a fixed set
+ * of commands, so the branch predictor cannot learn a single input.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBench {
+    private static final int INPUTS = 1024;
+
+    private String[] tasks;
+    private String[] indexes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchData.addCommands(INPUTS, 42);
+        Random random = new Random(42);
+        indexes = new String[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            indexes[i] = "mark " + (1 + random.nextInt(100_000));
+        }
+    }
+
+    @Benchmark
+    public ParseResult<Task> parseTask() {
+        return Parser.parseTask(tasks[next++ & (INPUTS - 1)]);
+    }
+
+    @Benchmark
+    public ParseResult<Integer> parseTaskIndex() {
+        return Parser.parseTaskIndex(indexes[next++ & (INPUTS - 1)], "mark");
+    }
+}
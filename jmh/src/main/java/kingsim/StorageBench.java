@@ -0,0 +1,75 @@
+package kingsim;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks saving and loading a whole list with {@link Storage}, in each file format.
+ * The {@code mapped} format is the data file of the mapped backing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class StorageBench {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"text", "binary", "mapped"})
+    private String format;
+
+    private ArrayList<Task> tasks;
+    private Path directory;
+    private Storage storage;
+
+    @Setup
+    public void setUp() throws IOException, KingSimException {
+        tasks = BenchData.tasks(size, 7);
+        String[] args = format.equals("mapped")
+                ? new String[] {"--backing", "mapped"} : new String[] {"--format", format};
+        directory = Files.createTempDirectory("kingsim-jmh");
+        storage = new Storage(directory.resolve("tasks").toString(), Options.parse(args));
+        storage.save(tasks);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        storage.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        storage.save(tasks);
+    }
+
+    @Benchmark
+    public List<Task> load() {
+        return storage.load();
+    }
+}
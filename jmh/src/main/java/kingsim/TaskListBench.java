@@ -0,0 +1,85 @@
+package kingsim;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link TaskList#find(String)} with each kind of search index, and
+ * {@link TaskList#remove(int)} with each list backing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class TaskListBench {
+    /**
+     * Holds a list to search, and a word from the description of its middle task.
+     */
+    @State(Scope.Thread)
+    public static class FindState {
+        @Param({"1000", "10000", "100000", "1000000"})
+        private int size;
+
+        @Param({"none", "word", "trigram"})
+        private String index;
+
+        private TaskList list;
+        private String keyword;
+
+        @Setup
+        public void setUp() throws KingSimException {
+            ArrayList<Task> tasks = BenchData.tasks(size, 7);
+            keyword = tasks.get(size / 2).getDescription().split(" ")[1];
+            list = new TaskList(tasks, Options.parse(new String[] {"--index", index}).getIndexType());
+            list.find(keyword);
+        }
+    }
+
+    /**
+     * Holds a list to remove from.
+     */
+    @State(Scope.Thread)
+    public static class RemoveState {
+        @Param({"1000", "10000", "100000", "1000000"})
+        private int size;
+
+        @Param({"array", "tree", "snapshot", "lazy", "columnar", "offheap", "mapped"})
+        private String backing;
+
+        private TaskList list;
+
+        @Setup
+        public void setUp() throws KingSimException {
+            ListBacking listBacking = Options.parse(new String[] {"--backing", backing}).getBacking();
+            list = listBacking.createTaskList(BenchData.tasks(size, 7), IndexType.NONE);
+        }
+    }
+
+    @Benchmark
+    public ArrayList<Task> find(FindState state) {
+        return state.list.find(state.keyword);
+    }
+
+    /**
+     * Removes the middle task and adds it back at the end, so that the list keeps its size.
+     */
+    @Benchmark
+    public Task remove(RemoveState state) {
+        Task removed = state.list.remove(state.size / 2);
+        state.list.add(removed);
+        return removed;
+    }
+}
@@ -0,0 +1,49 @@
+package kingsim;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks rendering a whole list with {@link Ui#showList(java.util.List)}, into a
+ * writer that discards the output.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class UiBench {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private ArrayList<Task> tasks;
+    private Ui ui;
+
+    @Setup
+    public void setUp() {
+        tasks = BenchData.tasks(size, 7);
+        ui = new Ui(new BufferedReader(new StringReader("")), new PrintWriter(Writer.nullWriter()));
+    }
+
+    @Benchmark
+    public void showList() {
+        ui.showList(tasks);
+    }
+}
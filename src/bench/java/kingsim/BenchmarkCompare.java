@@ -0,0 +1,124 @@
+package kingsim;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares two JSON result files of the JMH benchmarks in the {@code jmh} module, such as
+ * one from the previous commit and one from the current commit, and exits with status 1
+ * if any benchmark got slower by more than the threshold.
+ *
+ * <p>A benchmark only counts as slower if its new score is past the threshold and the
+ * confidence intervals of the two scores do not overlap, so noise alone does not fail a
+ * comparison. Benchmarks present in only one of the files are listed but not compared.
+ *
+ * <p>Run from the repository root with:
+ * <pre>
+ * gradle jmh    (writes jmh/build/results/jmh/results.json)
+ * javac -d bin src/main/java/kingsim/*.java src/bench/java/kingsim/*.java
+ * java -cp bin kingsim.BenchmarkCompare BASE.json NEW.json [threshold percent]
+ * </pre>
+ */
+public class BenchmarkCompare {
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+    /** Separates the results, as JMH starts each with the benchmark name. */
+    private static final Pattern RESULT_START = Pattern.compile("\"benchmark\"\\s*:");
+    private static final Pattern NAME = Pattern.compile("^\\s*\"([^\"]+)\"");
+    private static final Pattern PARAMS = Pattern.compile("\"params\"\\s*:\\s*\\{([^}]*)\\}");
+    /** Matches the primary metric, which JMH writes before any secondary ones. */
+    private static final Pattern SCORE = Pattern.compile("\"score\"\\s*:\\s*\"?([^,\"\\s]+)\"?\\s*,"
+            + "\\s*\"scoreError\"\\s*:\\s*\"?([^,\"\\s]+)\"?\\s*,"
+            + ".*?\"scoreUnit\"\\s*:\\s*\"([^\"]+)\"", Pattern.DOTALL);
+
+    /**
+     * Represents the score of one benchmark with one set of parameters.
+     */
+    private static class Score {
+        private final double score;
+        private final double error;
+        private final String unit;
+
+        private Score(double score, double error, String unit) {
+            this.score = score;
+            this.error = Double.isNaN(error) ? 0 : error;
+            this.unit = unit;
+        }
+    }
+
+    /**
+     * Runs the comparison.
+     *
+     * @param args Base result file, new result file and optional threshold in percent.
+     * @throws IOException If a result file cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: BenchmarkCompare BASE.json NEW.json [threshold percent]");
+            System.exit(2);
+        }
+        Map<String, Score> base = read(args[0]);
+        Map<String, Score> current = read(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+
+        int regressions = 0;
+        System.out.printf("%-60s %12s %12s %9s%n", "benchmark", "base", "new", "change");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = base.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-60s %12s %12.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+
+            double change = (now.score - before.score) / before.score * 100;
+            boolean isRegression = change > threshold && now.score - now.error > before.score + before.error;
+            if (isRegression) {
+                regressions++;
+            }
+            System.out.printf("%-60s %12.3f %12.3f %+8.1f%% %s%s%n", entry.getKey(), before.score, now.score, change,
+                    now.unit, isRegression ? "  REGRESSION" : "");
+        }
+        for (String key : base.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-60s %12.3f %12s %9s%n", key, base.get(key).score, "-", "removed");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) slower by more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the primary scores in a result file, keyed by the benchmark class and method
+     * and the parameters.
+     */
+    private static Map<String, Score> read(String file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        String json = new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8);
+        String[] results = RESULT_START.split(json);
+        for (int i = 1; i < results.length; i++) {
+            Matcher name = NAME.matcher(results[i]);
+            Matcher score = SCORE.matcher(results[i]);
+            if (!name.find() || !score.find()) {
+                continue;
+            }
+            String benchmark = name.group(1);
+            benchmark = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            Matcher params = PARAMS.matcher(results[i]);
+            String paramList = params.find()
+                    ? params.group(1).replaceAll("\\s+", "").replace("\"", "").replace(":", "=").replace(",", ", ")
+                    : "";
+            scores.put(benchmark + " {" + paramList + "}",
+                    new Score(Double.parseDouble(score.group(1)), Double.parseDouble(score.group(2)), score.group(3)));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,185 @@
+package kingsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress tests {@link ConcurrentTaskList} and the status of {@link Task} with many threads
+ * at once, and exits with status 1 if any check fails.
+ *
+ * <p>Writers add tasks, mark them, and delete some of them by ID, while readers keep
+ * taking snapshots and searching. Every snapshot must be consistent: no task appears
+ * twice, every task has been given an ID, and IDs increase along the list. Once the
+ * writers are done, the list must hold exactly the tasks that were not deleted. A second
+ * test keeps marking and unmarking one task while readers show it, and then checks that
+ * the cached way it is shown matches its final status.
+ *
+ * <p>Run from the repository root with:
+ * <pre>
+ * javac -d bin src/main/java/kingsim/*.java src/bench/java/kingsim/*.java
+ * java -cp bin kingsim.ConcurrencyStressTest [writers] [readers] [tasks per writer]
+ * </pre>
+ */
+public class ConcurrencyStressTest {
+    private static final int DEFAULT_WRITERS = 4;
+    private static final int DEFAULT_READERS = 4;
+    private static final int DEFAULT_TASKS = 5000;
+    private static final int STATUS_ROUNDS = 200;
+    private static final int STATUS_TOGGLES = 20000;
+
+    private static final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Runs the stress tests.
+     *
+     * @param args Optional numbers of writer threads, reader threads and tasks per writer.
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_WRITERS;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_READERS;
+        int tasksPerWriter = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_TASKS;
+
+        for (IndexType indexType : IndexType.values()) {
+            long start = System.nanoTime();
+            long snapshots = runList(indexType, writers, readers, tasksPerWriter);
+            System.out.printf("list, index %-7s %d writers, %d readers: %d snapshots checked in %.0f ms%n",
+                    indexType, writers, readers, snapshots, (System.nanoTime() - start) / 1e6);
+        }
+
+        long start = System.nanoTime();
+        runStatus(readers);
+        System.out.printf("status: %d rounds of %d toggles checked in %.0f ms%n",
+                STATUS_ROUNDS, STATUS_TOGGLES, (System.nanoTime() - start) / 1e6);
+
+        if (failures.get() > 0) {
+            System.out.println("FAILED: " + failures.get() + " checks failed");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    private static long runList(IndexType indexType, int writers, int readers, int tasksPerWriter)
+            throws InterruptedException {
+        ConcurrentTaskList list = new ConcurrentTaskList(new ArrayList<>(), indexType);
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        AtomicLong snapshots = new AtomicLong();
+        CountDownLatch startLine = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads.add(new Thread(() -> {
+                await(startLine);
+                for (int i = 0; i < tasksPerWriter; i++) {
+                    Task task = new Todo("writer " + writer + " task " + i);
+                    list.add(task);
+                    task.markDone();
+                    if (i % 3 == 0) {
+                        // Finding and deleting the task must not be split by another writer
+                        synchronized (list) {
+                            list.remove(list.indexOfId(task.getId()));
+                        }
+                    }
+                }
+            }));
+        }
+        List<Thread> readerThreads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            readerThreads.add(new Thread(() -> {
+                await(startLine);
+                while (isWriting.get()) {
+                    checkSnapshot(list.getAll());
+                    list.find("task 1");
+                    snapshots.incrementAndGet();
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        readerThreads.forEach(Thread::start);
+        startLine.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        isWriting.set(false);
+        for (Thread thread : readerThreads) {
+            thread.join();
+        }
+
+        List<Task> all = list.getAll();
+        checkSnapshot(all);
+        int expected = writers * (tasksPerWriter - (tasksPerWriter + 2) / 3);
+        check(all.size() == expected, "expected " + expected + " tasks but found " + all.size());
+        check(list.find("task").size() == expected, "search did not find every task");
+        for (Task task : all) {
+            check(task.isDone() && task.toString().startsWith("[T] [X]"), "task not shown as done: " + task);
+            check(all.get(list.indexOfId(task.getId())) == task, "ID does not lead to its task: " + task);
+        }
+        return snapshots.get();
+    }
+
+    private static void checkSnapshot(List<Task> snapshot) {
+        long lastId = 0;
+        for (Task task : snapshot) {
+            check(task.getId() > lastId, "IDs out of order or missing at " + task.getDescription());
+            lastId = task.getId();
+        }
+    }
+
+    private static void runStatus(int readers) throws InterruptedException {
+        for (int round = 0; round < STATUS_ROUNDS; round++) {
+            Task task = new Todo("toggled");
+            AtomicBoolean isToggling = new AtomicBoolean(true);
+            CountDownLatch startLine = new CountDownLatch(1);
+            Thread toggler = new Thread(() -> {
+                await(startLine);
+                for (int i = 0; i < STATUS_TOGGLES; i++) {
+                    if ((i & 1) == 0) {
+                        task.markDone();
+                    } else {
+                        task.unmarkDone();
+                    }
+                }
+                isToggling.set(false);
+            });
+            List<Thread> threads = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                threads.add(new Thread(() -> {
+                    await(startLine);
+                    while (isToggling.get()) {
+                        String shown = task.toString();
+                        check(shown.equals("[T] [X] toggled") || shown.equals("[T] [ ] toggled"),
+                                "task shown as " + shown);
+                    }
+                }));
+            }
+            toggler.start();
+            threads.forEach(Thread::start);
+            startLine.countDown();
+            toggler.join();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            check(task.toString().equals(task.isDone() ? "[T] [X] toggled" : "[T] [ ] toggled"),
+                    "task shown as " + task + " after toggling ended with done = " + task.isDone());
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition && failures.getAndIncrement() < 10) {
+            System.out.println("Check failed: " + message);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package kingsim;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compares {@link TaskList#find(String)} with each {@link IndexType} on generated lists
+ * of 10k, 100k and 1M tasks.
+ *
+ * <p>Run from the repository root with:
+ * <pre>
+ * javac -d bin src/main/java/kingsim/*.java src/bench/java/kingsim/*.java
+ * java -Xmx4g -cp bin kingsim.FindBenchmark [sizes...]
+ * </pre>
+ */
+public class FindBenchmark {
+    private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+    private static final String[] SYLLABLES = {
+        "ka", "lo", "mi", "ren", "to", "sa", "vi", "nor", "bel", "qu", "ix", "dra", "pe", "sun", "ho", "zet"
+    };
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional list sizes to use instead of the defaults.
+     */
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        String[] vocabulary = vocabulary(new Random(42), 5000);
+        String[] keywords = {vocabulary[0], vocabulary[4999], vocabulary[17].substring(1, 4), "zzzq", "ka lo"};
+
+        System.out.printf("%-9s %-8s %10s   %s%n", "tasks", "index", "build ms", "avg us per find: " + String.join(", ", keywords));
+        for (int size : sizes) {
+            ArrayList<Task> generated = generate(new Random(7), vocabulary, size);
+            for (IndexType type : IndexType.values()) {
+                long start = System.nanoTime();
+                TaskList list = new TaskList(new ArrayList<>(generated), type);
+                double buildMillis = (System.nanoTime() - start) / 1e6;
+
+                StringBuilder row = new StringBuilder();
+                for (String keyword : keywords) {
+                    row.append(String.format("%10.1f", averageMicros(list, keyword)));
+                }
+                System.out.printf("%-9d %-8s %10.1f %s%n", size, type.name().toLowerCase(), buildMillis, row);
+            }
+        }
+    }
+
+    /**
+     * Returns the average time of a search, after a warm-up, in microseconds.
+     */
+    private static double averageMicros(TaskList list, String keyword) {
+        int sink = 0;
+        for (int i = 0; i < 5; i++) {
+            sink += list.find(keyword).size();
+        }
+
+        int runs = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            sink += list.find(keyword).size();
+            runs++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < 200_000_000L && runs < 10_000);
+
+        if (sink == -1) {
+            System.out.println();
+        }
+        return elapsed / 1e3 / runs;
+    }
+
+    private static String[] vocabulary(Random random, int size) {
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int j = 0; j < syllables; j++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    /**
+     * Returns tasks of three to six words each. Words are skewed towards the start of the
+     * vocabulary, so a few words are common and most are rare, like in real lists.
+     */
+    private static ArrayList<Task> generate(Random random, String[] vocabulary, int size) {
+        ArrayList<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder desc = new StringBuilder();
+            int words = 3 + random.nextInt(4);
+            for (int j = 0; j < words; j++) {
+                double skewed = Math.pow(random.nextDouble(), 3);
+                desc.append(j == 0 ? "" : " ").append(vocabulary[(int) (skewed * vocabulary.length)]);
+            }
+            tasks.add(new Todo(desc.toString()));
+        }
+        return tasks;
+    }
+}
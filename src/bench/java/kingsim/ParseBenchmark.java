@@ -0,0 +1,121 @@
+package kingsim;
+
+import java.util.Random;
+
+/**
+ * Compares ways of reporting invalid input on a stream of commands where a given
+ * share of the commands are invalid.
+ *
+ * <p>"stack" throws a new exception with a stack trace for every invalid command, as the
+ * static factories of {@link KingSimException} used to. "stackless" throws the reused
+ * exceptions they return now. "result" checks the {@link ParseResult} without throwing.
+ *
+ * <p>Run from the repository root with:
+ * <pre>
+ * javac -d bin src/main/java/kingsim/*.java src/bench/java/kingsim/*.java
+ * java -cp bin kingsim.ParseBenchmark [invalid percentages...]
+ * </pre>
+ */
+public class ParseBenchmark {
+    private static final int[] DEFAULT_INVALID_PERCENTAGES = {0, 10, 50, 90};
+    private static final int COMMANDS = 1 << 16;
+    private static final int ROUNDS = 10;
+    private static final String[] VALID = {
+        "todo read book",
+        "deadline return book /by 2026-03-10 1800",
+        "event meeting /from 2026-03-10 1400 /to 2026-03-10 1600",
+        "mark 3",
+    };
+    private static final String[] INVALID = {
+        "todo",
+        "deadline return book",
+        "deadline return book /by tomorrow",
+        "event meeting /from 2026-03-10 1400",
+        "event meeting /from 2026-03-10 1600 /to 2026-03-10 1400",
+        "mark three",
+        "dance",
+    };
+
+    private static long sink;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional percentages of invalid commands to use instead of the defaults.
+     */
+    public static void main(String[] args) {
+        int[] percentages = DEFAULT_INVALID_PERCENTAGES;
+        if (args.length > 0) {
+            percentages = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                percentages[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-9s %14s %14s %14s%n", "invalid", "stack ns", "stackless ns", "result ns");
+        for (int percentage : percentages) {
+            String[] commands = generate(percentage, new Random(42));
+            long stack = best(() -> runThrowing(commands, true));
+            long stackless = best(() -> runThrowing(commands, false));
+            long result = best(() -> runResult(commands));
+            System.out.printf("%-9s %14.1f %14.1f %14.1f%n", percentage + "%",
+                    (double) stack / COMMANDS, (double) stackless / COMMANDS, (double) result / COMMANDS);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    private static String[] generate(int invalidPercentage, Random random) {
+        String[] commands = new String[COMMANDS];
+        for (int i = 0; i < COMMANDS; i++) {
+            commands[i] = random.nextInt(100) < invalidPercentage
+                    ? INVALID[random.nextInt(INVALID.length)]
+                    : VALID[random.nextInt(VALID.length)];
+        }
+        return commands;
+    }
+
+    private static ParseResult<?> parse(String command) {
+        if (command.startsWith("mark")) {
+            return Parser.parseTaskIndex(command, "mark");
+        }
+        return Parser.parseTask(command);
+    }
+
+    private static void runThrowing(String[] commands, boolean hasStackTrace) {
+        for (String command : commands) {
+            try {
+                ParseResult<?> parsed = parse(command);
+                if (!parsed.isOk() && hasStackTrace) {
+                    throw new KingSimException(parsed.getError().getMessage());
+                }
+                sink += parsed.orThrow().hashCode();
+            } catch (KingSimException e) {
+                sink += e.getMessage().length();
+            }
+        }
+    }
+
+    private static void runResult(String[] commands) {
+        for (String command : commands) {
+            ParseResult<?> parsed = parse(command);
+            if (parsed.isOk()) {
+                sink += parsed.getValue().hashCode();
+            } else {
+                sink += parsed.getError().getMessage().length();
+            }
+        }
+    }
+
+    /** Returns the fastest of several runs, in nanoseconds. */
+    private static long best(Runnable run) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            run.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
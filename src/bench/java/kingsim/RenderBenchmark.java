@@ -0,0 +1,159 @@
+package kingsim;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares rendering every task in lists of 10k, 100k and 1M tasks the way {@code list}
+ * does, before and after tasks cached how they are shown.
+ *
+ * <p>"before" rebuilds each task's string and formats its dates every time, as
+ * {@code toString} used to. "first" is the first render of fresh tasks, which fills the
+ * cache. "cached" renders the same tasks again into a reused builder. "toggled" calls
+ * {@code toString} after every task was marked, which only rebuilds around the status icon.
+ *
+ * <p>Run from the repository root with:
+ * <pre>
+ * javac -d bin src/main/java/kingsim/*.java src/bench/java/kingsim/*.java
+ * java -Xmx4g -cp bin kingsim.RenderBenchmark [sizes...]
+ * </pre>
+ */
+public class RenderBenchmark {
+    private static final int[] DEFAULT_SIZES = {10_000, 100_000, 1_000_000};
+    private static final int ROUNDS = 5;
+    private static final DateTimeFormatter OUTPUT_FORMAT =
+            DateTimeFormatter.ofPattern("MMM d yyyy h:mm a");
+
+    private static long sink;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional list sizes to use instead of the defaults.
+     */
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-9s %-8s %12s %14s%n", "tasks", "render", "ns per task", "bytes per task");
+        for (int size : sizes) {
+            List<Task> tasks = generate(size, new Random(42));
+            StringBuilder sb = new StringBuilder(128);
+
+            report(size, "before", best(() -> renderBefore(tasks, sb)), allocated(() -> renderBefore(tasks, sb)));
+            long[] first = measureOnce(() -> renderCached(tasks, sb));
+            report(size, "first", first[0], first[1]);
+            report(size, "cached", best(() -> renderCached(tasks, sb)), allocated(() -> renderCached(tasks, sb)));
+
+            for (Task task : tasks) {
+                task.markDone();
+            }
+            long[] toggled = measureOnce(() -> renderToString(tasks));
+            report(size, "toggled", toggled[0], toggled[1]);
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    private static List<Task> generate(int size, Random random) {
+        List<Task> tasks = new ArrayList<>(size);
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            String desc = "task " + Integer.toString(random.nextInt(1 << 30), 36) + " number " + i;
+            LocalDateTime time = start.plusMinutes(random.nextInt(500_000));
+            switch (i % 3) {
+            case 0:
+                tasks.add(new Todo(desc));
+                break;
+            case 1:
+                tasks.add(new Deadline(desc, time));
+                break;
+            default:
+                tasks.add(new Event(desc, time, time.plusHours(2)));
+                break;
+            }
+        }
+        return tasks;
+    }
+
+    private static void renderBefore(List<Task> tasks, StringBuilder sb) {
+        int number = 1;
+        for (Task t : tasks) {
+            String status = "[" + (t.isDone() ? "X" : " ") + "] " + t.getDescription();
+            String line;
+            if (t instanceof Deadline) {
+                line = "[D] " + status + " (by: " + ((Deadline) t).getBy().format(OUTPUT_FORMAT) + ")";
+            } else if (t instanceof Event) {
+                Event e = (Event) t;
+                line = "[E] " + status + " (from: " + e.getFrom().format(OUTPUT_FORMAT)
+                        + " to: " + e.getTo().format(OUTPUT_FORMAT) + ")";
+            } else {
+                line = "[T] " + status;
+            }
+            sb.setLength(0);
+            sb.append(number++).append(". ").append(line);
+            sink += sb.length();
+        }
+    }
+
+    private static void renderCached(List<Task> tasks, StringBuilder sb) {
+        int number = 1;
+        for (Task t : tasks) {
+            sb.setLength(0);
+            sb.append(number++).append(". ");
+            t.appendTo(sb);
+            sink += sb.length();
+        }
+    }
+
+    private static void renderToString(List<Task> tasks) {
+        for (Task t : tasks) {
+            sink += t.toString().length();
+        }
+    }
+
+    /** Returns the fastest of several runs, in nanoseconds per task. */
+    private static long best(Runnable render) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            render.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    /** Returns the time and bytes allocated by a single run. */
+    private static long[] measureOnce(Runnable render) {
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        render.run();
+        long time = System.nanoTime() - start;
+        return new long[] {time, allocatedBytes() - bytes};
+    }
+
+    private static long allocated(Runnable render) {
+        long bytes = allocatedBytes();
+        render.run();
+        return allocatedBytes() - bytes;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void report(int size, String render, long nanos, long bytes) {
+        System.out.printf("%-9d %-8s %12.1f %14.1f%n", size, render, (double) nanos / size, (double) bytes / size);
+    }
+}
@@ -0,0 +1,183 @@
+package kingsim;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Replays a workload of commands through a whole {@link KingSIM} session in this process
+ * and reports the command throughput and latencies.
+ *
+ * <p>The workload is read from a file, such as one written by {@link WorkloadGenerator},
+ * or generated before the run starts. The session reads it through a {@link Ui} over the
+ * file, writes its replies to a stream that discards them, and keeps its data in a
+ * temporary directory. A command's latency runs from when the session reads it to when
+ * the session asks for the next one, so it covers parsing, the change or search, saving
+ * and formatting the reply, but not reading the workload. Saving the lists when the
+ * workload ends is reported separately.
+ *
+ * <p>Arguments other than the ones below are passed on as KingSIM options, so the same
+ * workload can be replayed with, say, {@code --journal} or {@code --backing tree}. Run
+ * from the repository root with:
+ * <pre>
+ * javac -d bin src/main/java/kingsim/*.java src/bench/java/kingsim/*.java
+ * java -cp bin kingsim.ReplayHarness [--workload FILE | --commands N --seed S --mix MIX] [options]
+ * </pre>
+ */
+public class ReplayHarness {
+    private static final int DEFAULT_COMMANDS = 100_000;
+    private static final long DEFAULT_SEED = 42;
+    private static final String DEFAULT_MIX = "add=70,mark=20,find=5,list=5";
+
+    /**
+     * Runs the replay.
+     *
+     * @param args Workload to replay and KingSIM options.
+     * @throws Exception If the workload cannot be read or written, or the options are invalid.
+     */
+    public static void main(String[] args) throws Exception {
+        String workload = null;
+        int commands = DEFAULT_COMMANDS;
+        long seed = DEFAULT_SEED;
+        String mix = DEFAULT_MIX;
+        List<String> kingSimArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--workload":
+                workload = args[++i];
+                break;
+            case "--commands":
+                commands = Integer.parseInt(args[++i]);
+                break;
+            case "--seed":
+                seed = Long.parseLong(args[++i]);
+                break;
+            case "--mix":
+                mix = args[++i];
+                break;
+            default:
+                kingSimArgs.add(args[i]);
+                break;
+            }
+        }
+        Options options = Options.parse(kingSimArgs.toArray(new String[0]));
+
+        Path dataDirectory = Files.createTempDirectory("kingsim-replay");
+        try {
+            Path workloadFile;
+            if (workload != null) {
+                workloadFile = Paths.get(workload);
+            } else {
+                workloadFile = dataDirectory.resolve("workload.txt");
+                try (Writer out = Files.newBufferedWriter(workloadFile, StandardCharsets.UTF_8)) {
+                    new WorkloadGenerator(seed, mix).write(commands, out);
+                }
+                System.out.printf("generated %d commands with seed %d and mix %s%n", commands, seed, mix);
+            }
+            replay(workloadFile, dataDirectory.resolve("kingsim.txt"), options);
+        } finally {
+            deleteRecursively(dataDirectory);
+        }
+    }
+
+    private static void replay(Path workloadFile, Path dataFile, Options options) throws IOException {
+        PrintWriter discarded = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(OutputStream.nullOutputStream(), StandardCharsets.UTF_8), 1 << 16));
+        try (BufferedReader in = Files.newBufferedReader(workloadFile, StandardCharsets.UTF_8)) {
+            TimingUi ui = new TimingUi(in, discarded);
+            long start = System.nanoTime();
+            KingSIM session = new KingSIM(dataFile.toString(), options, ui);
+            long started = System.nanoTime();
+            session.run();
+            long end = System.nanoTime();
+
+            LatencyHistogram all = ui.getAll();
+            double replaySeconds = (ui.getLastCommandEnd() - started) / 1e9;
+            System.out.printf("startup: %.1f ms, replay: %.2f s, shutdown: %.1f ms%n",
+                    (started - start) / 1e6, replaySeconds, (end - ui.getLastCommandEnd()) / 1e6);
+            System.out.printf("commands: %d, throughput: %.0f commands/s%n",
+                    all.getCount(), all.getCount() / replaySeconds);
+            System.out.printf("%-9s %9s %9s %9s %9s %9s%n",
+                    "command", "count", "p50 us", "p99 us", "p999 us", "max us");
+            for (Map.Entry<String, LatencyHistogram> entry : ui.getByCommand().entrySet()) {
+                printRow(entry.getKey(), entry.getValue());
+            }
+            printRow("all", all);
+        }
+    }
+
+    private static void printRow(String name, LatencyHistogram histogram) {
+        System.out.printf(Locale.ROOT, "%-9s %9d %9.1f %9.1f %9.1f %9.1f%n", name, histogram.getCount(),
+                histogram.getPercentile(0.5) / 1e3, histogram.getPercentile(0.99) / 1e3,
+                histogram.getPercentile(0.999) / 1e3, histogram.getMax() / 1e3);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * A UI that times each command from when it is read to when the next one is asked for.
+     */
+    private static class TimingUi extends Ui {
+        private final LatencyHistogram all = new LatencyHistogram();
+        private final Map<String, LatencyHistogram> byCommand = new LinkedHashMap<>();
+        private LatencyHistogram current;
+        private long commandStart;
+        private long lastCommandEnd;
+
+        TimingUi(BufferedReader in, PrintWriter out) {
+            super(in, out);
+        }
+
+        @Override
+        public String readCommand() {
+            lastCommandEnd = System.nanoTime();
+            if (current != null) {
+                long latency = lastCommandEnd - commandStart;
+                current.record(latency);
+                all.record(latency);
+            }
+
+            String command = super.readCommand();
+            if (command != null) {
+                int space = command.indexOf(' ');
+                String word = space < 0 ? command : command.substring(0, space);
+                current = byCommand.computeIfAbsent(word, w -> new LatencyHistogram());
+            }
+            commandStart = System.nanoTime();
+            return command;
+        }
+
+        LatencyHistogram getAll() {
+            return all;
+        }
+
+        Map<String, LatencyHistogram> getByCommand() {
+            return byCommand;
+        }
+
+        long getLastCommandEnd() {
+            return lastCommandEnd;
+        }
+    }
+}
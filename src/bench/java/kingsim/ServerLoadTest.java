@@ -0,0 +1,207 @@
+package kingsim;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Load tests the {@link SessionServer} with clients on the same machine.
+ *
+ * <p>The server runs in this process on a free port, with its data in a temporary
+ * directory. First the given number of idle clients connect and each starts a session,
+ * and the heap used per session is reported. Then the given number of active clients
+ * each send a stream of commands, waiting for each reply, and the command throughput and
+ * reply latencies are reported. The idle sessions stay connected throughout.
+ *
+ * <p>Each connection uses a file descriptor on both ends, so the open file limit must be
+ * more than twice the number of clients. Run from the repository root with:
+ * <pre>
+ * javac -d bin src/main/java/kingsim/*.java src/bench/java/kingsim/*.java
+ * java -cp bin kingsim.ServerLoadTest [idle clients] [active clients] [commands per client]
+ * </pre>
+ */
+public class ServerLoadTest {
+    private static final int DEFAULT_IDLE_CLIENTS = 2000;
+    private static final int DEFAULT_ACTIVE_CLIENTS = 16;
+    private static final int DEFAULT_COMMANDS = 2000;
+    private static final String LINE = "____________________________________________________________";
+
+    /**
+     * Runs the load test.
+     *
+     * @param args Optional numbers of idle clients, active clients and commands per active client.
+     * @throws Exception If the server cannot be started or a client fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int idleClients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_IDLE_CLIENTS;
+        int activeClients = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ACTIVE_CLIENTS;
+        int commands = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_COMMANDS;
+
+        Path dataDirectory = Files.createTempDirectory("kingsim-load");
+        try (SessionServer server = new SessionServer(0, dataDirectory, new Options())) {
+            Thread acceptor = new Thread(server::run, "kingsim-acceptor");
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            long heapBefore = usedHeap();
+            List<Client> idle = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int i = 0; i < idleClients; i++) {
+                Client client = new Client(server.getPort(), "idle-" + i);
+                client.awaitReply();
+                idle.add(client);
+            }
+            long connectNanos = System.nanoTime() - start;
+            long heapAfter = usedHeap();
+            System.out.printf("idle sessions: %d, connected in %.1f ms, heap per session: %.1f KiB%n",
+                    idleClients, connectNanos / 1e6, (heapAfter - heapBefore) / 1024.0 / Math.max(1, idleClients));
+
+            runActive(server.getPort(), activeClients, commands);
+
+            for (Client client : idle) {
+                client.close();
+            }
+        } finally {
+            deleteRecursively(dataDirectory);
+        }
+    }
+
+    private static void runActive(int port, int clients, int commands) throws Exception {
+        long[][] latencies = new long[clients][];
+        Thread[] threads = new Thread[clients];
+        Exception[] failures = new Exception[clients];
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int index = c;
+            threads[c] = new Thread(() -> {
+                try {
+                    latencies[index] = runClient(port, "active-" + index, commands);
+                } catch (Exception e) {
+                    failures[index] = e;
+                }
+            });
+            threads[c].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        for (Exception failure : failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("active clients: %d, commands: %d, throughput: %.0f commands/s%n",
+                clients, all.length, all.length / (elapsed / 1e9));
+        System.out.printf("latency us: p50 %.1f, p99 %.1f, p999 %.1f, max %.1f%n",
+                percentile(all, 0.50) / 1e3, percentile(all, 0.99) / 1e3, percentile(all, 0.999) / 1e3,
+                all[all.length - 1] / 1e3);
+    }
+
+    /** Sends a stream of commands as one user and returns the latency of each, in nanoseconds. */
+    private static long[] runClient(int port, String user, int commands) throws IOException {
+        long[] latencies = new long[commands];
+        try (Client client = new Client(port, user)) {
+            client.awaitReply();
+            for (int i = 0; i < commands; i++) {
+                String command;
+                switch (i % 4) {
+                case 0:
+                    command = "todo task " + i;
+                    break;
+                case 1:
+                    command = "mark " + ((i / 4) + 1);
+                    break;
+                case 2:
+                    command = "find task";
+                    break;
+                default:
+                    command = "list 1-5";
+                    break;
+                }
+                long start = System.nanoTime();
+                client.send(command);
+                client.awaitReply();
+                latencies[i] = System.nanoTime() - start;
+            }
+            client.send("bye");
+        }
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * A connection to the server, logged in as one user.
+     */
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final OutputStream out;
+
+        Client(int port, String user) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = socket.getOutputStream();
+            send(user);
+        }
+
+        void send(String line) throws IOException {
+            out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        /** Reads up to the line that closes a reply. */
+        void awaitReply() throws IOException {
+            boolean isInReply = false;
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.contains(LINE)) {
+                    if (isInReply) {
+                        return;
+                    }
+                    isInReply = true;
+                }
+            }
+            throw new IOException("Connection closed by server");
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package kingsim;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates a repeatable stream of commands for {@link ReplayHarness}, one per line.
+ *
+ * <p>The mix gives the weight of each kind of command, such as
+ * {@code add=70,mark=20,find=5,list=5}, the default. Kinds left out have weight 0. The
+ * kinds are {@code add} (todos, deadlines and events in a ratio of 6:3:1), {@code mark},
+ * {@code unmark}, {@code delete}, {@code find} and {@code list} (one page of the list).
+ * Commands that need a task are only generated while the list has one, and otherwise
+ * become adds. Descriptions are made of words drawn from a fixed vocabulary, a few of
+ * them far more often than the rest, so searches find anything from a handful of tasks
+ * to a sizeable part of the list. The same count, seed and mix always give the same
+ * commands.
+ *
+ * <p>Run from the repository root with:
+ * <pre>
+ * javac -d bin src/main/java/kingsim/*.java src/bench/java/kingsim/*.java
+ * java -cp bin kingsim.WorkloadGenerator [commands] [seed] [mix] &gt; workload.txt
+ * </pre>
+ */
+public class WorkloadGenerator {
+    /** Kinds of command in a mix, in the order their weights are given. */
+    private static final String[] KINDS = {"add", "mark", "unmark", "delete", "find", "list"};
+    private static final String DEFAULT_MIX = "add=70,mark=20,find=5,list=5";
+    private static final int DEFAULT_COMMANDS = 1_000_000;
+    private static final long DEFAULT_SEED = 42;
+    private static final int VOCABULARY_SIZE = 2000;
+    private static final int COMMON_WORDS = 20;
+    private static final String[] SYLLABLES = {
+        "ba", "ko", "ri", "mu", "te", "sa", "li", "no", "pe", "da", "vi", "gu", "fa", "zo", "he", "ju",
+    };
+
+    private final Random random;
+    private final int[] cumulativeWeights = new int[KINDS.length];
+    private final String[] vocabulary = new String[VOCABULARY_SIZE];
+    private int size;
+
+    /**
+     * Creates a generator for the given mix of commands.
+     *
+     * @param seed Seed for the random choices.
+     * @param mix Weight of each kind of command, such as {@code add=70,mark=20,find=10}.
+     * @throws IllegalArgumentException If the mix names an unknown kind or has no weight.
+     */
+    public WorkloadGenerator(long seed, String mix) {
+        random = new Random(seed);
+        int[] weights = new int[KINDS.length];
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            int kind = kindOf(pair[0].trim());
+            if (kind < 0 || pair.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            weights[kind] = Integer.parseInt(pair[1].trim());
+        }
+        int total = 0;
+        for (int i = 0; i < KINDS.length; i++) {
+            total += weights[i];
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The mix has no weight: " + mix);
+        }
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = word(i);
+        }
+    }
+
+    /**
+     * Writes the given number of commands, each followed by a newline. No {@code bye}
+     * is written, so a session replaying them ends at the end of the input.
+     *
+     * @param commands Number of commands to write.
+     * @param out Destination of the commands.
+     * @throws IOException If writing fails.
+     */
+    public void write(int commands, Writer out) throws IOException {
+        StringBuilder line = new StringBuilder(96);
+        for (int i = 0; i < commands; i++) {
+            line.setLength(0);
+            next(line);
+            out.write(line.append('\n').toString());
+        }
+        out.flush();
+    }
+
+    /**
+     * Appends the next command to the given builder.
+     *
+     * @param line Builder to append the command to.
+     */
+    public void next(StringBuilder line) {
+        String kind = KINDS[pickKind()];
+        if (size == 0 && !kind.equals("find") && !kind.equals("list")) {
+            kind = "add";
+        }
+        switch (kind) {
+        case "add":
+            appendAdd(line);
+            size++;
+            break;
+        case "delete":
+            line.append("delete ").append(1 + random.nextInt(size));
+            size--;
+            break;
+        case "find":
+            line.append("find ").append(pickWord());
+            break;
+        case "list":
+            int pages = Math.max(1, (size + Parser.LIST_PAGE_SIZE - 1) / Parser.LIST_PAGE_SIZE);
+            line.append("list page ").append(1 + random.nextInt(pages));
+            break;
+        default:
+            line.append(kind).append(' ').append(1 + random.nextInt(size));
+            break;
+        }
+    }
+
+    private int pickKind() {
+        int pick = random.nextInt(cumulativeWeights[KINDS.length - 1]);
+        int kind = 0;
+        while (pick >= cumulativeWeights[kind]) {
+            kind++;
+        }
+        return kind;
+    }
+
+    private void appendAdd(StringBuilder line) {
+        int type = random.nextInt(10);
+        line.append(type < 6 ? "todo" : type < 9 ? "deadline" : "event");
+        int words = 2 + random.nextInt(4);
+        for (int i = 0; i < words; i++) {
+            line.append(' ').append(pickWord());
+        }
+        int day = 1 + random.nextInt(28);
+        int month = 1 + random.nextInt(12);
+        int hour = 8 + random.nextInt(10);
+        if (type >= 9) {
+            line.append(String.format(Locale.ROOT, " /from 2026-%02d-%02d %02d00 /to 2026-%02d-%02d %02d00",
+                    month, day, hour, month, day, hour + 1));
+        } else if (type >= 6) {
+            line.append(String.format(Locale.ROOT, " /by 2026-%02d-%02d %02d00", month, day, hour));
+        }
+    }
+
+    /** Returns a word, choosing one of the few common words about a third of the time. */
+    private String pickWord() {
+        if (random.nextInt(3) == 0) {
+            return vocabulary[random.nextInt(COMMON_WORDS)];
+        }
+        return vocabulary[COMMON_WORDS + random.nextInt(VOCABULARY_SIZE - COMMON_WORDS)];
+    }
+
+    private static String word(int i) {
+        StringBuilder sb = new StringBuilder();
+        int rest = i;
+        do {
+            sb.append(SYLLABLES[rest % SYLLABLES.length]);
+            rest /= SYLLABLES.length;
+        } while (rest > 0);
+        return sb.append(SYLLABLES[i * 7 % SYLLABLES.length]).toString();
+    }
+
+    private static int kindOf(String name) {
+        for (int i = 0; i < KINDS.length; i++) {
+            if (KINDS[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a workload to standard output, or to the file given after {@code --out}.
+     *
+     * @param args Optional number of commands, seed and mix, and {@code --out FILE}.
+     * @throws IOException If writing fails.
+     */
+    public static void main(String[] args) throws IOException {
+        String outFile = null;
+        String[] values = {String.valueOf(DEFAULT_COMMANDS), String.valueOf(DEFAULT_SEED), DEFAULT_MIX};
+        int count = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--out")) {
+                outFile = args[++i];
+            } else if (count < values.length) {
+                values[count++] = args[i];
+            }
+        }
+
+        WorkloadGenerator generator = new WorkloadGenerator(Long.parseLong(values[1]), values[2]);
+        Writer out = outFile == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedWriter(Paths.get(outFile), StandardCharsets.UTF_8);
+        try (out) {
+            generator.write(Integer.parseInt(values[0]), out);
+        }
+    }
+}
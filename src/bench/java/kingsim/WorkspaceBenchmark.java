@@ -0,0 +1,104 @@
+package kingsim;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Measures how much heap a {@link Workspace} holds as the number of task lists on disk
+ * grows, and how long opening a list takes when it is cached and when it must be loaded.
+ *
+ * <p>For each number of lists, that many lists of the given size are written to a
+ * temporary directory, and every list is opened in turn twice over. The heap freed by
+ * closing the workspace afterwards should stay flat once the lists no longer all fit
+ * within the cache size.
+ *
+ * <p>Run from the repository root with:
+ * <pre>
+ * javac -d bin src/main/java/kingsim/*.java src/bench/java/kingsim/*.java
+ * java -cp bin kingsim.WorkspaceBenchmark [tasks per list] [cache size]
+ * </pre>
+ */
+public class WorkspaceBenchmark {
+    private static final int[] LIST_COUNTS = {10, 100, 1000};
+    private static final int DEFAULT_TASKS_PER_LIST = 200;
+    private static final long DEFAULT_CACHE_SIZE = 10_000;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Optional number of tasks per list and cache size.
+     * @throws Exception If the lists cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        int tasksPerList = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TASKS_PER_LIST;
+        long cacheSize = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_CACHE_SIZE;
+
+        System.out.printf("%-7s %12s %14s %14s%n", "lists", "heap KiB", "miss us/open", "hit us/open");
+        for (int listCount : LIST_COUNTS) {
+            Path directory = Files.createTempDirectory("kingsim-workspace");
+            try {
+                write(directory, listCount, tasksPerList);
+                Workspace workspace = new Workspace(directory, new Options(), cacheSize);
+
+                long start = System.nanoTime();
+                for (int round = 0; round < 2; round++) {
+                    for (int i = 0; i < listCount; i++) {
+                        workspace.open("list" + i);
+                    }
+                }
+                long cycleNanos = System.nanoTime() - start;
+
+                String last = "list" + (listCount - 1);
+                start = System.nanoTime();
+                for (int i = 0; i < 100_000; i++) {
+                    workspace.open(last);
+                }
+                long hitNanos = System.nanoTime() - start;
+
+                long heapOpen = usedHeap();
+                workspace.close();
+                long heap = heapOpen - usedHeap();
+                System.out.printf("%-7d %12d %14.1f %14.3f%n", listCount, heap / 1024,
+                        cycleNanos / 1e3 / (2.0 * listCount), hitNanos / 1e3 / 100_000);
+            } finally {
+                deleteRecursively(directory);
+            }
+        }
+    }
+
+    private static void write(Path directory, int listCount, int tasksPerList) throws IOException {
+        for (int i = 0; i < listCount; i++) {
+            List<Task> tasks = new ArrayList<>();
+            for (int t = 0; t < tasksPerList; t++) {
+                tasks.add(new Todo("list " + i + " task " + t));
+            }
+            // Gives the tasks their IDs
+            new TaskList(tasks, IndexType.NONE);
+            Storage storage = new Storage(directory.resolve("list" + i + ".txt").toString());
+            storage.save(tasks);
+            storage.close();
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
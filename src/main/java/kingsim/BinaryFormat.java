@@ -0,0 +1,226 @@
+package kingsim;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes the binary data file format.
+ *
+ * <p>The file starts with a header of the magic bytes {@code KSIM}, a version byte,
+ * the last journal entry the file includes (8 bytes), the smallest ID no task has ever had
+ * (8 bytes) and the number of tasks (4 bytes).
+ * Each task then follows as a type byte ({@code T}, {@code D} or {@code E}), a flags byte
+ * whose lowest bit is the done status, its ID as a varint, its date-times as epoch seconds
+ * (8 bytes each), and its description as a varint length followed by UTF-8 bytes.
+ * Version 2 files have no next ID field, and version 1 files, written before IDs were
+ * kept, also have no ID field in each task; both are still read.
+ */
+class BinaryFormat {
+    static final byte VERSION = 3;
+
+    private static final byte VERSION_WITHOUT_NEXT_ID = 2;
+    private static final byte VERSION_WITHOUT_IDS = 1;
+    private static final byte[] MAGIC = {'K', 'S', 'I', 'M'};
+    private static final int HEADER_SIZE = MAGIC.length + 1 + 2 * Long.BYTES + Integer.BYTES;
+    private static final int OLD_HEADER_SIZE = HEADER_SIZE - Long.BYTES;
+    /** Smallest size of a task record: type, flags and an empty description's length. */
+    private static final int MIN_RECORD_SIZE = 3;
+    private static final byte FLAG_DONE = 1;
+
+    /**
+     * Holds the values read from the header of a data file.
+     */
+    static class Header {
+        final long seq;
+        /** Next ID to give out, or 0 if the file does not record it. */
+        final long nextId;
+
+        private Header(long seq, long nextId) {
+            this.seq = seq;
+            this.nextId = nextId;
+        }
+    }
+
+    /**
+     * Returns whether the given file contents start with the binary format's magic bytes.
+     *
+     * @param bytes Contents of the data file.
+     * @return True if the contents are in the binary format.
+     */
+    static boolean isBinary(ByteBuffer bytes) {
+        if (bytes.remaining() < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (bytes.get(bytes.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the given tasks encoded in the binary format.
+     *
+     * @param tasks Tasks to encode.
+     * @param seq Last journal entry the tasks include.
+     * @param nextId Smallest ID no task has ever had.
+     * @return Encoded file contents.
+     */
+    static byte[] encode(List<Task> tasks, long seq, long nextId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_SIZE + tasks.size() * 32);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).put(VERSION).putLong(seq).putLong(nextId).putInt(tasks.size());
+        out.write(header.array(), 0, HEADER_SIZE);
+
+        ByteBuffer times = ByteBuffer.allocate(2 * Long.BYTES);
+        for (Task t : tasks) {
+            times.clear();
+            byte type;
+            if (t instanceof Deadline) {
+                type = 'D';
+                times.putLong(toEpochSecond(((Deadline) t).getBy()));
+            } else if (t instanceof Event) {
+                type = 'E';
+                times.putLong(toEpochSecond(((Event) t).getFrom()));
+                times.putLong(toEpochSecond(((Event) t).getTo()));
+            } else {
+                type = 'T';
+            }
+
+            out.write(type);
+            out.write(t.isDone() ? FLAG_DONE : 0);
+            writeVarLong(out, t.getId());
+            out.write(times.array(), 0, times.position());
+
+            byte[] desc = t.getDescription().getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, desc.length);
+            out.write(desc, 0, desc.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes tasks from file contents in the binary format into the given list.
+     * Decoding stops at the first record that is cut short or has an unknown type.
+     *
+     * @param in Contents of the data file.
+     * @param tasks List to add the decoded tasks to.
+     * @return Values read from the header.
+     * @throws IOException If the file has an unsupported version.
+     */
+    static Header decode(ByteBuffer in, ArrayList<Task> tasks) throws IOException {
+        if (in.remaining() < OLD_HEADER_SIZE) {
+            return new Header(0, 0);
+        }
+        in.position(in.position() + MAGIC.length);
+        byte version = in.get();
+        if (version != VERSION && version != VERSION_WITHOUT_NEXT_ID && version != VERSION_WITHOUT_IDS) {
+            throw new IOException("Unsupported data file version " + version);
+        }
+        if (version == VERSION && in.remaining() < HEADER_SIZE - MAGIC.length - 1) {
+            return new Header(0, 0);
+        }
+        long seq = in.getLong();
+        long nextId = version == VERSION ? in.getLong() : 0;
+        int count = in.getInt();
+        tasks.ensureCapacity(tasks.size() + Math.min(count, in.remaining() / MIN_RECORD_SIZE));
+        byte[] scratch = new byte[256];
+
+        try {
+            for (int i = 0; i < count; i++) {
+                byte type = in.get();
+                boolean isDone = (in.get() & FLAG_DONE) != 0;
+                long id = version != VERSION_WITHOUT_IDS ? readVarLong(in) : 0;
+                long first = type == 'D' || type == 'E' ? in.getLong() : 0;
+                long second = type == 'E' ? in.getLong() : 0;
+                int length = readVarInt(in);
+                if (length > in.remaining()) {
+                    break;
+                }
+                if (length > scratch.length) {
+                    scratch = new byte[Math.max(length, scratch.length * 2)];
+                }
+                in.get(scratch, 0, length);
+                String desc = new String(scratch, 0, length, StandardCharsets.UTF_8);
+
+                Task t;
+                if (type == 'T') {
+                    t = new Todo(desc);
+                } else if (type == 'D') {
+                    t = new Deadline(desc, fromEpochSecond(first));
+                } else if (type == 'E') {
+                    t = new Event(desc, fromEpochSecond(first), fromEpochSecond(second));
+                } else {
+                    break;
+                }
+                if (isDone) {
+                    t.markDone();
+                }
+                t.setId(id);
+                tasks.add(t);
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            // The rest of the file is cut short, so keep the tasks decoded so far
+        }
+        return new Header(seq, nextId);
+    }
+
+    private static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime fromEpochSecond(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("ID is too long");
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Negative description length");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Description length is too long");
+    }
+}
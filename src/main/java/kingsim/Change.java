@@ -0,0 +1,107 @@
+package kingsim;
+
+/**
+ * Represents a single change made to the task list, to one task or to several at once.
+ * Changes are what the storage journal records instead of rewriting the whole file.
+ */
+public class Change {
+    /**
+     * Kinds of changes that can be made to the task list.
+     */
+    enum Type {
+        ADD, MARK, UNMARK, DELETE
+    }
+
+    private final Type type;
+    private final Task task;
+    private final int[] indexes;
+
+    private Change(Type type, Task task, int[] indexes) {
+        this.type = type;
+        this.task = task;
+        this.indexes = indexes;
+    }
+
+    /**
+     * Returns a change for a task added to the end of the list.
+     *
+     * @param task Task that was added.
+     * @return Change describing the addition.
+     */
+    public static Change added(Task task) {
+        return new Change(Type.ADD, task, new int[0]);
+    }
+
+    /**
+     * Returns a change for a task marked as done.
+     *
+     * @param index Zero-based index of the task.
+     * @return Change describing the mark.
+     */
+    public static Change marked(int index) {
+        return new Change(Type.MARK, null, new int[] {index});
+    }
+
+    /**
+     * Returns a change for several tasks marked as done by one command.
+     *
+     * @param indexes Zero-based indexes of the tasks.
+     * @return Change describing the marks.
+     */
+    public static Change markedAll(int[] indexes) {
+        return new Change(Type.MARK, null, indexes);
+    }
+
+    /**
+     * Returns a change for a task marked as not done.
+     *
+     * @param index Zero-based index of the task.
+     * @return Change describing the unmark.
+     */
+    public static Change unmarked(int index) {
+        return new Change(Type.UNMARK, null, new int[] {index});
+    }
+
+    /**
+     * Returns a change for several tasks marked as not done by one command.
+     *
+     * @param indexes Zero-based indexes of the tasks.
+     * @return Change describing the unmarks.
+     */
+    public static Change unmarkedAll(int[] indexes) {
+        return new Change(Type.UNMARK, null, indexes);
+    }
+
+    /**
+     * Returns a change for a deleted task.
+     *
+     * @param index Zero-based index the task had before it was removed.
+     * @return Change describing the deletion.
+     */
+    public static Change deleted(int index) {
+        return new Change(Type.DELETE, null, new int[] {index});
+    }
+
+    /**
+     * Returns a change for several tasks deleted by one command.
+     *
+     * @param indexes Zero-based indexes the tasks had before they were removed, in
+     *     increasing order.
+     * @return Change describing the deletions.
+     */
+    public static Change deletedAll(int[] indexes) {
+        return new Change(Type.DELETE, null, indexes);
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    Task getTask() {
+        return task;
+    }
+
+    int[] getIndexes() {
+        return indexes;
+    }
+}
@@ -0,0 +1,270 @@
+package kingsim;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Represents a list of tasks stored in columns instead of as task objects, to keep very
+ * large lists small in memory.
+ *
+ * <p>Each column is an array indexed by position: the task type, the ID, and the due or
+ * start time and the end time as seconds since the epoch. The done flags are kept in a
+ * {@link BitSet}, and the descriptions are packed one after another into a shared byte
+ * arena in UTF-8. Getting a task creates a new task object from the columns each time, so
+ * changing that object does not change the list; {@link #setDone(int, boolean)} does.
+ * Deleting a task shifts the later ones, as in an array, and leaves its description in
+ * the arena until at least half the arena is unused, when the arena is compacted.
+ *
+ * <p>{@code find} and the time queries scan the columns directly, creating task objects
+ * only for the matches. Times are kept to the second.
+ */
+class ColumnarList extends PackedList {
+    private static final int MIN_COMPACTED_ARENA = 1 << 16;
+    private static final VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private byte[] types;
+    private long[] ids;
+    private long[] starts;
+    private long[] ends;
+    private int[] descOffsets;
+    private int[] descLengths;
+    private final BitSet done = new BitSet();
+    private final BitSet nonAscii = new BitSet();
+    private byte[] arena;
+    private int arenaSize;
+    private int deadBytes;
+    private int size;
+
+    /**
+     * Creates a list holding the given tasks in order. Tasks without an ID, or with an ID
+     * no larger than the one before, are given new IDs so that the IDs increase along the
+     * list.
+     *
+     * @param tasks Initial tasks.
+     */
+    ColumnarList(Collection<Task> tasks) {
+        int capacity = Math.max(16, tasks.size());
+        types = new byte[capacity];
+        ids = new long[capacity];
+        starts = new long[capacity];
+        ends = new long[capacity];
+        descOffsets = new int[capacity];
+        descLengths = new int[capacity];
+        int descriptionChars = 0;
+        for (Task task : tasks) {
+            descriptionChars += task.getDescription().length();
+        }
+        arena = new byte[Math.max(256, descriptionChars)];
+        assignIncreasingIds(tasks);
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    @Override
+    public long getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    @Override
+    void setDone(int index, boolean isDone) {
+        checkIndex(index);
+        done.set(index, isDone);
+    }
+
+    @Override
+    byte typeAt(int index) {
+        return types[index];
+    }
+
+    @Override
+    long startAt(int index) {
+        return starts[index];
+    }
+
+    @Override
+    long endAt(int index) {
+        return ends[index];
+    }
+
+    @Override
+    boolean isDoneAt(int index) {
+        return done.get(index);
+    }
+
+    @Override
+    boolean isAsciiAt(int index) {
+        return !nonAscii.get(index);
+    }
+
+    @Override
+    String descriptionAt(int index) {
+        return new String(arena, descOffsets[index], descLengths[index], StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task old = get(index);
+        deadBytes += descLengths[index];
+        store(index, task);
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == types.length) {
+            int capacity = size + (size >> 1);
+            types = Arrays.copyOf(types, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            descOffsets = Arrays.copyOf(descOffsets, capacity);
+            descLengths = Arrays.copyOf(descLengths, capacity);
+        }
+        shift(index, index + 1, size - index);
+        size++;
+        store(index, task);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        deadBytes += descLengths[index];
+        shift(index + 1, index, size - index - 1);
+        size--;
+        done.clear(size);
+        nonAscii.clear(size);
+        modCount++;
+        if (deadBytes > MIN_COMPACTED_ARENA && deadBytes > arenaSize / 2) {
+            compactArena();
+        }
+        return removed;
+    }
+
+    @Override
+    public void removeAll(int[] indexes) {
+        for (int index : indexes) {
+            deadBytes += descLengths[index];
+        }
+        int oldSize = size;
+        size = CompactingList.compact(indexes, size, this::shift);
+        done.clear(size, oldSize);
+        nonAscii.clear(size, oldSize);
+        modCount++;
+        if (deadBytes > MIN_COMPACTED_ARENA && deadBytes > arenaSize / 2) {
+            compactArena();
+        }
+    }
+
+    private void store(int index, Task task) {
+        types[index] = typeOf(task);
+        starts[index] = startOf(task);
+        ends[index] = endOf(task);
+        ids[index] = task.getId();
+        done.set(index, task.isDone());
+
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        nonAscii.set(index, description.length != task.getDescription().length());
+        if (arenaSize + description.length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arenaSize + description.length, arena.length * 2));
+        }
+        System.arraycopy(description, 0, arena, arenaSize, description.length);
+        descOffsets[index] = arenaSize;
+        descLengths[index] = description.length;
+        arenaSize += description.length;
+    }
+
+    /**
+     * Moves the columns of the tasks from the given position on by the given distance,
+     * including the done and non-ASCII flags.
+     */
+    private void shift(int from, int to, int count) {
+        System.arraycopy(types, from, types, to, count);
+        System.arraycopy(ids, from, ids, to, count);
+        System.arraycopy(starts, from, starts, to, count);
+        System.arraycopy(ends, from, ends, to, count);
+        System.arraycopy(descOffsets, from, descOffsets, to, count);
+        System.arraycopy(descLengths, from, descLengths, to, count);
+        shiftBits(done, from, to, count);
+        shiftBits(nonAscii, from, to, count);
+    }
+
+    private static void shiftBits(BitSet bits, int from, int to, int count) {
+        if (count == 0) {
+            return;
+        }
+        BitSet moved = bits.get(from, from + count);
+        bits.clear(Math.min(from, to), Math.max(from, to) + count);
+        for (int i = moved.nextSetBit(0); i >= 0; i = moved.nextSetBit(i + 1)) {
+            bits.set(to + i);
+        }
+    }
+
+    /**
+     * Copies the descriptions still in use to the start of a new arena.
+     */
+    private void compactArena() {
+        byte[] compacted = new byte[Math.max(256, (arenaSize - deadBytes) * 3 / 2)];
+        int used = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, descOffsets[i], compacted, used, descLengths[i]);
+            descOffsets[i] = used;
+            used += descLengths[i];
+        }
+        arena = compacted;
+        arenaSize = used;
+        deadBytes = 0;
+    }
+
+    @Override
+    boolean containsIgnoringCase(int index, byte[] keyword) {
+        int last = descOffsets[index] + descLengths[index] - keyword.length;
+        long pattern = firstBytePattern(keyword);
+        int start = descOffsets[index];
+        while (start + Long.BYTES <= arena.length && start <= last) {
+            long candidates = firstByteCandidates((long) LONGS.get(arena, start), pattern);
+            while (candidates != 0) {
+                int candidate = start + Long.numberOfTrailingZeros(candidates) / 8;
+                if (candidate > last) {
+                    return false;
+                }
+                if (matchesAt(candidate, keyword)) {
+                    return true;
+                }
+                candidates &= candidates - 1;
+            }
+            start += Long.BYTES;
+        }
+        for (; start <= last; start++) {
+            if (matchesAt(start, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesAt(int start, byte[] keyword) {
+        for (int k = 0; k < keyword.length; k++) {
+            if (toLowerCase(arena[start + k]) != keyword[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+package kingsim;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Reports a command run by a session to JDK Flight Recorder, with the time it spent in
+ * each {@link Metrics.Phase}. The event lasts from the start of the command to its end,
+ * so it carries the command's real duration. Events are only used when {@code --jfr} is
+ * given, and only created while a recording that enables {@code kingsim.Command} is
+ * running, for example one started with {@code -XX:StartFlightRecording}; otherwise
+ * timing a command allocates nothing.
+ */
+@Name("kingsim.Command")
+@Label("Command")
+@Category("KingSIM")
+@Description("A command run by a KingSIM session")
+@StackTrace(false)
+class CommandEvent extends Event {
+    @Label("Command")
+    String command;
+
+    @Label("Parse Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long parse;
+
+    @Label("Execute Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long execute;
+
+    @Label("Persist Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long persist;
+
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long render;
+
+    @Label("Failed")
+    boolean failed;
+
+    /** Event never committed, only asked whether the event is enabled. */
+    private static final CommandEvent PROBE = new CommandEvent();
+
+    /**
+     * Starts an event for a command that is beginning, if a running recording enables
+     * this event.
+     *
+     * @return Started event, or null if the event is not enabled.
+     */
+    static CommandEvent start() {
+        if (!PROBE.isEnabled()) {
+            return null;
+        }
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event when its command has finished, and records it if the recording still
+     * wants it, such as when it lasted longer than the recording's threshold.
+     *
+     * @param command Command word.
+     * @param phaseNanos Time spent in each phase, indexed by {@link Metrics.Phase#ordinal()}.
+     * @param failed True if an error was shown for the command.
+     */
+    void finish(String command, long[] phaseNanos, boolean failed) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.command = command;
+        parse = phaseNanos[Metrics.Phase.PARSE.ordinal()];
+        execute = phaseNanos[Metrics.Phase.EXECUTE.ordinal()];
+        persist = phaseNanos[Metrics.Phase.PERSIST.ordinal()];
+        render = phaseNanos[Metrics.Phase.RENDER.ordinal()];
+        this.failed = failed;
+        commit();
+    }
+}
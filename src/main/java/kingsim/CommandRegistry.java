@@ -0,0 +1,112 @@
+package kingsim;
+
+/**
+ * Maps command words to the handlers that carry them out.
+ *
+ * <p>The command word is the input up to its first space, matched ignoring case.
+ * Handlers are kept in an open-addressing table indexed by a hash of the word, so looking
+ * up a command takes the same time however many commands there are, and reads the word
+ * straight from the input without creating a new string.
+ */
+class CommandRegistry {
+    /**
+     * Carries out one kind of command.
+     */
+    interface Handler {
+        /**
+         * Carries out the command in the given input.
+         *
+         * @param input Full user input, starting with the command word.
+         * @throws KingSimException If the command cannot be carried out.
+         */
+        void handle(String input) throws KingSimException;
+    }
+
+    private String[] names = new String[16];
+    private Handler[] handlers = new Handler[16];
+    private int count;
+
+    /**
+     * Registers the handler for a command word, replacing any handler it had.
+     *
+     * @param name Command word, in lower case.
+     * @param handler Handler for the command.
+     */
+    void register(String name, Handler handler) {
+        if ((count + 1) * 2 > names.length) {
+            grow();
+        }
+        int slot = slotOf(name, name.length());
+        if (names[slot] == null) {
+            count++;
+        }
+        names[slot] = name;
+        handlers[slot] = handler;
+    }
+
+    /**
+     * Returns the handler for the command word at the start of the given input.
+     *
+     * @param input Full user input.
+     * @return Handler for the command, or null if the command is not known.
+     */
+    Handler lookup(String input) {
+        return handlers[slotOf(input, wordLength(input))];
+    }
+
+    /**
+     * Returns the length of the command word at the start of the given input.
+     *
+     * @param input Full user input.
+     * @return Number of characters before the first space, or the input length if there is none.
+     */
+    static int wordLength(String input) {
+        int end = input.indexOf(' ');
+        return end == -1 ? input.length() : end;
+    }
+
+    /**
+     * Returns the slot holding the command word made of the first {@code length}
+     * characters of the given text, or the empty slot where it would go.
+     */
+    private int slotOf(String text, int length) {
+        int mask = names.length - 1;
+        int slot = hash(text, length) & mask;
+        while (names[slot] != null) {
+            String name = names[slot];
+            if (name.length() == length && text.regionMatches(true, 0, name, 0, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int hash(String text, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            } else if (c >= 0x80) {
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            h = 31 * h + c;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private void grow() {
+        String[] oldNames = names;
+        Handler[] oldHandlers = handlers;
+        names = new String[oldNames.length * 2];
+        handlers = new Handler[oldNames.length * 2];
+        for (int i = 0; i < oldNames.length; i++) {
+            if (oldNames[i] != null) {
+                int slot = slotOf(oldNames[i], oldNames[i].length());
+                names[slot] = oldNames[i];
+                handlers[slot] = oldHandlers[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package kingsim;
+
+/**
+ * Represents a list of tasks that can remove many tasks in one pass, moving each remaining
+ * task at most once instead of shifting the later tasks once per task removed.
+ * {@link TaskList#removeAll(int[])} uses this when the list supports it.
+ */
+interface CompactingList {
+    /**
+     * Removes the tasks at the given positions.
+     *
+     * @param indexes Indexes of the tasks to remove, in increasing order without repeats.
+     */
+    void removeAll(int[] indexes);
+
+    /**
+     * Moves each run of tasks between the removed positions down over the removed tasks,
+     * from the first run to the last, and returns the number of tasks left.
+     *
+     * @param indexes Indexes of the tasks to remove, in increasing order without repeats.
+     * @param size Number of tasks before removing.
+     * @param mover Moves a run of tasks to a lower position.
+     * @return Number of tasks after removing.
+     */
+    static int compact(int[] indexes, int size, Mover mover) {
+        if (indexes.length == 0) {
+            return size;
+        }
+        int to = indexes[0];
+        for (int k = 0; k < indexes.length; k++) {
+            int from = indexes[k] + 1;
+            int end = k + 1 < indexes.length ? indexes[k + 1] : size;
+            if (end > from) {
+                mover.move(from, to, end - from);
+                to += end - from;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Moves a run of consecutive tasks within a list.
+     */
+    interface Mover {
+        void move(int from, int to, int count);
+    }
+}
@@ -0,0 +1,98 @@
+package kingsim;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a list of tasks that many threads can read and change at once.
+ *
+ * <p>The tasks are kept in a {@link SnapshotList}. Reading tasks never locks:
+ * {@link #get(int)}, {@link #size()} and searching without an index read the latest
+ * published version of the list, and {@link #getAll()} returns a snapshot that later
+ * changes do not affect, so a list can be shown or saved while other threads change it.
+ * Adding and removing tasks lock the list, update the ID map and indexes, and then publish
+ * the new version. Lookups that go through the ID map or an index take the same lock.
+ *
+ * <p>Marking a task is a single volatile write on the {@link Task} itself and needs no lock.
+ */
+public class ConcurrentTaskList extends TaskList {
+    private final SnapshotList snapshots;
+    private final boolean isIndexed;
+
+    /**
+     * Creates a concurrent task list holding the given tasks, indexed for searching.
+     *
+     * @param tasks Existing list of tasks.
+     * @param indexType Kind of search index to keep.
+     */
+    public ConcurrentTaskList(List<Task> tasks, IndexType indexType) {
+        this(new SnapshotList(tasks), indexType);
+    }
+
+    private ConcurrentTaskList(SnapshotList snapshots, IndexType indexType) {
+        super(snapshots, indexType);
+        this.snapshots = snapshots;
+        this.isIndexed = indexType != IndexType.NONE;
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        super.add(task);
+    }
+
+    @Override
+    public synchronized Task remove(int index) {
+        return super.remove(index);
+    }
+
+    @Override
+    public synchronized List<Task> removeAll(int[] indexes) {
+        return super.removeAll(indexes);
+    }
+
+    @Override
+    public synchronized long getNextId() {
+        return super.getNextId();
+    }
+
+    @Override
+    public synchronized void reserveIdsBelow(long id) {
+        super.reserveIdsBelow(id);
+    }
+
+    @Override
+    public synchronized int indexOfId(long id) {
+        return super.indexOfId(id);
+    }
+
+    /**
+     * Returns a snapshot of all tasks in the list, which later changes do not affect.
+     *
+     * @return List of all tasks.
+     */
+    @Override
+    public List<Task> getAll() {
+        return snapshots.snapshot();
+    }
+
+    @Override
+    public ArrayList<Task> find(String keyword) {
+        if (isIndexed) {
+            synchronized (this) {
+                return super.find(keyword);
+            }
+        }
+        return super.find(keyword);
+    }
+
+    @Override
+    public synchronized ArrayList<Task> findDueBefore(LocalDateTime time) {
+        return super.findDueBefore(time);
+    }
+
+    @Override
+    public synchronized ArrayList<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+        return super.findBetween(from, to);
+    }
+}
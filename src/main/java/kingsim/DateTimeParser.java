@@ -0,0 +1,193 @@
+package kingsim;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the fixed date-time formats KingSIM reads, without going through
+ * {@link DateTimeFormatter} or throwing on invalid input.
+ *
+ * <p>User input is in the format {@code yyyy-MM-dd HHmm} and is resolved the same way as
+ * {@code DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm")}: a day past the end of the month
+ * becomes its last day, and {@code 2400} becomes midnight of the next day. Data files use
+ * the ISO format written by {@link LocalDateTime#toString()}, such as
+ * {@code 2026-03-10T18:00}, which is checked strictly. Digits are read straight from the
+ * text, and the rare forms not handled here, such as years past 9999, are passed on to
+ * the standard parser.
+ *
+ * <p>Parsed values are kept in a small cache, so reading the same date-time many times,
+ * as in a data file full of tasks due on the same day, returns the same object.
+ */
+class DateTimeParser {
+    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int CACHE_SIZE = 1024;
+
+    /** Cached values. An entry is only used if its fields match, so races just miss. */
+    private static final LocalDateTime[] cache = new LocalDateTime[CACHE_SIZE];
+
+    /**
+     * Returns the date and time in user input of the format {@code yyyy-MM-dd HHmm}.
+     *
+     * @param text Date and time entered by the user.
+     * @return Parsed date and time, or null if the text is not a valid date and time.
+     */
+    static LocalDateTime parseInput(String text) {
+        if (text.length() != 15 || text.charAt(10) != ' ' || !isDate(text)) {
+            return text.startsWith("+") ? parseWith(text, INPUT_FORMAT) : null;
+        }
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 13, 2);
+        if (hour < 0 || minute < 0) {
+            return null;
+        }
+
+        boolean isEndOfDay = hour == 24 && minute == 0;
+        if ((hour > 23 && !isEndOfDay) || minute > 59) {
+            return null;
+        }
+        LocalDateTime result = resolve(digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2),
+                isEndOfDay ? 0 : hour, minute, 0, false);
+        return result != null && isEndOfDay ? result.plusDays(1) : result;
+    }
+
+    /**
+     * Returns the date in user input of the format {@code yyyy-MM-dd}.
+     *
+     * @param text Date entered by the user.
+     * @return Parsed date, or null if the text is not a valid date.
+     */
+    static LocalDate parseInputDate(String text) {
+        if (text.length() != 10 || !isDate(text)) {
+            if (text.startsWith("+")) {
+                try {
+                    return LocalDate.parse(text, DATE_FORMAT);
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            }
+            return null;
+        }
+        LocalDateTime result = resolve(digits(text, 0, 4), digits(text, 5, 2), digits(text, 8, 2), 0, 0, 0, false);
+        return result == null ? null : result.toLocalDate();
+    }
+
+    /**
+     * Returns the date and time in ISO format, such as {@code 2026-03-10T18:00}, found
+     * in the given bytes of a data file.
+     *
+     * @param bytes Bytes holding the date and time.
+     * @param start Index of the first byte.
+     * @param end Index just after the last byte.
+     * @return Parsed date and time, or null if the bytes are not a valid ISO date and time.
+     */
+    static LocalDateTime parseIso(byte[] bytes, int start, int end) {
+        int length = end - start;
+        if ((length == 16 || length == 19) && bytes[start + 10] == 'T' && bytes[start + 13] == ':'
+                && (length == 16 || bytes[start + 16] == ':')) {
+            int year = digits(bytes, start, 4);
+            int month = digits(bytes, start + 5, 2);
+            int day = digits(bytes, start + 8, 2);
+            int hour = digits(bytes, start + 11, 2);
+            int minute = digits(bytes, start + 14, 2);
+            int second = length == 19 ? digits(bytes, start + 17, 2) : 0;
+            if (bytes[start + 4] != '-' || bytes[start + 7] != '-' || year < 0 || hour < 0 || hour > 23
+                    || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return null;
+            }
+            return resolve(year, month, day, hour, minute, second, true);
+        }
+
+        try {
+            return LocalDateTime.parse(new String(bytes, start, length, StandardCharsets.US_ASCII));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDate(String text) {
+        return text.charAt(4) == '-' && text.charAt(7) == '-'
+                && digits(text, 0, 4) > 0 && digits(text, 5, 2) >= 0 && digits(text, 8, 2) >= 0;
+    }
+
+    /**
+     * Returns the date-time with the given fields, or null if they are out of range.
+     * If {@code isStrict} is false, a day past the end of its month becomes the last day.
+     */
+    private static LocalDateTime resolve(int year, int month, int day, int hour, int minute, int second,
+            boolean isStrict) {
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        int monthLength = monthLength(year, month);
+        if (day > monthLength) {
+            if (isStrict) {
+                return null;
+            }
+            day = monthLength;
+        }
+
+        long key = ((((((long) year * 16 + month) * 32 + day) * 32 + hour) * 64 + minute) * 64) + second;
+        int slot = (int) (key ^ (key >>> 17)) & (CACHE_SIZE - 1);
+        LocalDateTime cached = cache[slot];
+        if (cached != null && cached.getYear() == year && cached.getMonthValue() == month
+                && cached.getDayOfMonth() == day && cached.getHour() == hour
+                && cached.getMinute() == minute && cached.getSecond() == second && cached.getNano() == 0) {
+            return cached;
+        }
+        LocalDateTime result = LocalDateTime.of(year, month, day, hour, minute, second);
+        cache[slot] = result;
+        return result;
+    }
+
+    private static int monthLength(int year, int month) {
+        switch (month) {
+        case 2:
+            boolean isLeap = (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+            return isLeap ? 29 : 28;
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    /** Returns the number made of the given digits, or -1 if any of them is not a digit. */
+    private static int digits(String text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int digits(byte[] bytes, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static LocalDateTime parseWith(String text, DateTimeFormatter format) {
+        try {
+            return LocalDateTime.parse(text, format);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
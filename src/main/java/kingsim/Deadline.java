@@ -32,7 +32,14 @@ public class Deadline extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[D] " + super.toString() + " (by: " + by.format(OUTPUT_FORMAT) + ")";
+    String getTypeTag() {
+        return "[D] ";
+    }
+
+    @Override
+    void appendDetails(StringBuilder sb) {
+        sb.append(" (by: ");
+        OUTPUT_FORMAT.formatTo(by, sb);
+        sb.append(')');
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package kingsim;
+
+/**
+ * Represents how strongly each change is persisted before the next command runs.
+ */
+public enum Durability {
+    /** Changes are written on the command thread, leaving syncing to the operating system. */
+    IMMEDIATE,
+    /** Changes are written and forced to disk on the command thread. */
+    FSYNC,
+    /** Changes are collected and written together with one sync on a background thread. */
+    GROUP,
+    /** Changes are kept in memory and written only when KingSIM exits. */
+    ON_EXIT
+}
@@ -35,9 +35,16 @@ public class Event extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[E] " + super.toString()
-                + " (from: " + from.format(OUTPUT_FORMAT)
-                + " to: " + to.format(OUTPUT_FORMAT) + ")";
+    String getTypeTag() {
+        return "[E] ";
+    }
+
+    @Override
+    void appendDetails(StringBuilder sb) {
+        sb.append(" (from: ");
+        OUTPUT_FORMAT.formatTo(from, sb);
+        sb.append(" to: ");
+        OUTPUT_FORMAT.formatTo(to, sb);
+        sb.append(')');
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package kingsim;
+
+/**
+ * Represents the formats the data file can be written in.
+ */
+public enum FileFormat {
+    /** One pipe-delimited line per task, such as {@code 12 | D | 1 | desc | 2026-03-10T18:00}. */
+    TEXT,
+    /** Versioned binary records, see {@link BinaryFormat}. */
+    BINARY,
+    /** The fixed-width records of an {@link OffHeapList}, kept with {@link ListBacking#MAPPED}. */
+    MAPPED
+}
@@ -0,0 +1,24 @@
+package kingsim;
+
+/**
+ * Represents a list of tasks that keeps the task IDs apart from the tasks, so that an ID
+ * can be read without creating or decoding its task. {@link TaskList} uses this to find a
+ * task by ID without keeping a map from IDs to tasks.
+ */
+interface IdList {
+    /**
+     * Returns the ID of the task at the given position.
+     *
+     * @param index Index of the task.
+     * @return ID of the task, or 0 if it has none.
+     */
+    long getId(int index);
+
+    /**
+     * Returns whether every task has an ID and the IDs increase along the list, so that
+     * the position of a task can be found from its ID by binary search.
+     *
+     * @return True if the IDs are positive and strictly increasing.
+     */
+    boolean hasIncreasingIds();
+}
@@ -0,0 +1,29 @@
+package kingsim;
+
+/**
+ * Represents the kinds of search index a {@link TaskList} can keep for {@code find}.
+ */
+public enum IndexType {
+    /** No index; every search scans the whole list. */
+    NONE,
+    /** An inverted index from words to the tasks containing them, see {@link WordIndex}. */
+    WORD,
+    /** An index from three-character substrings to the tasks containing them, see {@link TrigramIndex}. */
+    TRIGRAM;
+
+    /**
+     * Returns a new, empty index of this kind.
+     *
+     * @return New index, or null for {@link #NONE}.
+     */
+    SearchIndex create() {
+        switch (this) {
+        case WORD:
+            return new WordIndex();
+        case TRIGRAM:
+            return new TrigramIndex();
+        default:
+            return null;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package kingsim;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Represents a set of events that can be searched for those overlapping a time range.
+ *
+ * <p>Events are kept in a treap ordered by start time, then sequence number. Every node
+ * also records the latest end time in its subtree, so subtrees that end before the range
+ * are skipped. Adding, removing and searching take O(log n) time, plus O(k) for k matches.
+ * Times are epoch seconds.
+ */
+class IntervalTree {
+    private static class Node {
+        private final Event event;
+        private final long start;
+        private final long end;
+        private final int priority;
+        private long maxEnd;
+        private Node left;
+        private Node right;
+
+        private Node(Event event, long start, long end, int priority) {
+            this.event = event;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    private final Random random = new Random();
+    private Node root;
+
+    /**
+     * Adds an event.
+     *
+     * @param event Event to add.
+     */
+    void add(Event event) {
+        Node node = new Node(event, TimeIndex.toSeconds(event.getFrom()),
+                TimeIndex.toSeconds(event.getTo()), random.nextInt());
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes an event if it is in the tree.
+     *
+     * @param event Event to remove.
+     */
+    void remove(Event event) {
+        root = delete(root, TimeIndex.toSeconds(event.getFrom()), event.getSequence());
+    }
+
+    /**
+     * Returns the events that overlap the range, ordered by start time.
+     *
+     * @param start Start of the range, inclusive.
+     * @param end End of the range, inclusive.
+     * @return Events that start no later than {@code end} and end no earlier than {@code start}.
+     */
+    ArrayList<Event> overlapping(long start, long end) {
+        ArrayList<Event> matches = new ArrayList<>();
+        collect(root, start, end, matches);
+        return matches;
+    }
+
+    private static void collect(Node node, long start, long end, ArrayList<Event> matches) {
+        if (node == null || node.maxEnd < start) {
+            return;
+        }
+        collect(node.left, start, end, matches);
+        if (node.start > end) {
+            return;
+        }
+        if (node.end >= start) {
+            matches.add(node.event);
+        }
+        collect(node.right, start, end, matches);
+    }
+
+    private static int compare(long start, long sequence, Node node) {
+        int byStart = Long.compare(start, node.start);
+        return byStart != 0 ? byStart : Long.compare(sequence, node.event.getSequence());
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.event.getSequence(), node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private static Node delete(Node node, long start, long sequence) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(start, sequence, node);
+        if (cmp < 0) {
+            node.left = delete(node.left, start, sequence);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, start, sequence);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Returns the treap holding both subtrees, where every node in {@code left}
+     * comes before every node in {@code right}.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static void update(Node node) {
+        long maxEnd = node.end;
+        if (node.left != null) {
+            maxEnd = Math.max(maxEnd, node.left.maxEnd);
+        }
+        if (node.right != null) {
+            maxEnd = Math.max(maxEnd, node.right.maxEnd);
+        }
+        node.maxEnd = maxEnd;
+    }
+}
@@ -0,0 +1,187 @@
+package kingsim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handles the append-only journal that sits next to the data file.
+ * Each line of the journal is one numbered entry, written as {@code <seq> <op> <payload>}.
+ * A change to several tasks takes several entries, framed by a group start and end.
+ * When the journal is folded into a new snapshot, it is first rotated aside so that
+ * new changes can keep being appended while the snapshot is written.
+ */
+class Journal {
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final Path path;
+    private final Path rotatedPath;
+    private FileChannel channel;
+    private long size;
+    private long bytesWritten;
+
+    /**
+     * Creates a journal for the given data file.
+     *
+     * @param dataFile Path to the data file the journal belongs to.
+     */
+    Journal(Path dataFile) {
+        this.path = dataFile.resolveSibling(dataFile.getFileName() + ".journal");
+        this.rotatedPath = dataFile.resolveSibling(dataFile.getFileName() + ".journal.old");
+    }
+
+    /**
+     * Returns whether any journal file exists on disk.
+     *
+     * @return True if there are journal entries that may need replaying.
+     */
+    boolean exists() {
+        return Files.exists(path) || Files.exists(rotatedPath);
+    }
+
+    /**
+     * Returns the entries of the rotated journal followed by the current journal, in order.
+     *
+     * @return Journal lines, oldest first.
+     * @throws IOException If reading a journal file fails.
+     */
+    List<String> readAll() throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (Files.exists(rotatedPath)) {
+            lines.addAll(Files.readAllLines(rotatedPath, StandardCharsets.UTF_8));
+        }
+        if (Files.exists(path)) {
+            lines.addAll(Files.readAllLines(path, StandardCharsets.UTF_8));
+        }
+        return lines;
+    }
+
+    /**
+     * Appends entries to the journal in a single write. If the journal does not end with a
+     * line break, as when a crash cut its last line short, the entries start on a new line
+     * so that the first of them is not joined to the cut line.
+     *
+     * @param lines Entries to append, each already prefixed with its sequence number.
+     * @throws IOException If writing to the journal fails.
+     */
+    synchronized void append(List<String> lines) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            size = channel.size();
+            if (size > 0 && !endsWithLineBreak()) {
+                sb.append(NEWLINE);
+            }
+        }
+
+        for (String line : lines) {
+            sb.append(line).append(NEWLINE);
+        }
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(sb.toString());
+        while (bytes.hasRemaining()) {
+            int written = channel.write(bytes);
+            size += written;
+            bytesWritten += written;
+        }
+    }
+
+    /**
+     * Forces appended entries to the storage device.
+     *
+     * @throws IOException If the journal cannot be synced.
+     */
+    synchronized void sync() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Returns the number of bytes in the current journal.
+     *
+     * @return Size of the current journal.
+     */
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes appended since the journal was created, across rotations.
+     *
+     * @return Total bytes appended.
+     */
+    synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Moves the current journal aside so a snapshot can be written while new entries
+     * go to a fresh journal. Does nothing if an earlier rotated journal is still waiting
+     * to be folded in.
+     *
+     * @throws IOException If the journal cannot be moved.
+     */
+    synchronized void rotate() throws IOException {
+        if (Files.exists(rotatedPath)) {
+            return;
+        }
+        closeChannel();
+        if (Files.exists(path)) {
+            Files.move(path, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+        size = 0;
+    }
+
+    /**
+     * Deletes the rotated journal once its entries are part of a snapshot.
+     *
+     * @throws IOException If the file cannot be deleted.
+     */
+    synchronized void deleteRotated() throws IOException {
+        Files.deleteIfExists(rotatedPath);
+    }
+
+    /**
+     * Deletes both journal files once a full snapshot has been written.
+     *
+     * @throws IOException If the files cannot be deleted.
+     */
+    synchronized void clear() throws IOException {
+        closeChannel();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(rotatedPath);
+        size = 0;
+    }
+
+    /**
+     * Closes the journal file if it is open.
+     *
+     * @throws IOException If closing the file fails.
+     */
+    synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    private boolean endsWithLineBreak() throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            in.read(last, in.size() - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
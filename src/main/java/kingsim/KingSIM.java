@@ -1,15 +1,35 @@
 package kingsim;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Represents the main KingSIM chatbot application.
+ * Commands work on one task list at a time, chosen with the use command from the lists
+ * kept in the {@link Workspace} of the data file's directory. Every command is timed by
+ * {@link Metrics}, which the stats command shows. A command runs holding the task lock
+ * of the list's {@link Storage}, so that writes made in the background never copy the
+ * tasks in the middle of a change.
  */
 public class KingSIM {
 
-    private final Storage storage;
+    private final Workspace workspace;
     private final Ui ui;
-    private final TaskList tasks;
+    private final CommandRegistry commands = new CommandRegistry();
+    private final Metrics metrics;
+    private final boolean isBatch;
+    private final long saveEvery;
+    private Workspace.OpenList current;
+    private Storage storage;
+    private TaskList tasks;
+    private long commandsSinceSave;
+    private boolean isExiting;
 
     /**
      * Creates a KingSIM chatbot using the given file path for storage.
@@ -17,9 +37,45 @@ public class KingSIM {
      * @param filePath Path to the data file.
      */
     public KingSIM(String filePath) {
-        ui = new Ui();
-        storage = new Storage(filePath);
-        tasks = new TaskList(storage.load());
+        this(filePath, new Options());
+    }
+
+    /**
+     * Creates a KingSIM chatbot using the given file path for storage and startup options.
+     *
+     * @param filePath Path to the data file.
+     * @param options Options choosing how tasks are persisted.
+     */
+    public KingSIM(String filePath, Options options) {
+        this(filePath, options, new Ui());
+    }
+
+    /**
+     * Creates a KingSIM chatbot using the given file path for storage, startup options and UI.
+     * If the options choose batch mode, changes are saved every
+     * {@link Options#getSaveEvery()} commands and when the batch ends, instead of after
+     * every command. The data file holds the list in use at first and is opened exactly as
+     * named; other lists are kept next to it. The first list is named after the file without
+     * its {@code .txt} extension, so {@code kingsim.txt} holds the list {@code kingsim}.
+     *
+     * @param filePath Path to the data file.
+     * @param options Options choosing how tasks are persisted.
+     * @param ui UI to read commands from and show output on.
+     */
+    public KingSIM(String filePath, Options options, Ui ui) {
+        this.ui = ui;
+        isBatch = options.getBatchFile() != null;
+        saveEvery = options.getSaveEvery();
+        metrics = new Metrics(options.isJfrEnabled());
+        Path file = Paths.get(filePath);
+        Path directory = file.getParent() == null ? Paths.get(".") : file.getParent();
+        String name = file.getFileName().toString();
+        if (name.endsWith(".txt")) {
+            name = name.substring(0, name.length() - 4);
+        }
+        workspace = new Workspace(directory, options, options.getCacheSize());
+        use(workspace.open(name, file));
+        registerCommands();
     }
 
     /**
@@ -27,59 +83,35 @@ public class KingSIM {
      */
     public void run() {
         ui.showWelcome();
+        ui.showLoadProblems(storage.getLoadProblems());
 
-        while (true) {
+        while (!isExiting) {
+            showDeferredSaveFailure();
+            saveBatchIfDue();
             String input = ui.readCommand();
+            if (input == null) {
+                closeStorage();
+                break;
+            }
             try {
                 if (input.isEmpty()) {
                     throw KingSimException.emptyInput();
                 }
 
-                String lower = input.toLowerCase();
-
-                if (lower.equals("bye")) {
-                    ui.showBye();
-                    break;
-                }
-
-                if (lower.equals("list")) {
-                    ui.showList(tasks.getAll());
-                    continue;
-                }
-
-                if (lower.equals("find") || lower.startsWith("find ")) {
-                    handleFind(input);
-                    continue;
-                }
-
-                if (lower.equals("mark") || lower.startsWith("mark ")) {
-                    handleMarkUnmark(input, true);
-                    saveQuietly();
-                    continue;
+                CommandRegistry.Handler handler = commands.lookup(input);
+                if (handler == null) {
+                    throw KingSimException.unknownCommand();
                 }
-
-                if (lower.equals("unmark") || lower.startsWith("unmark ")) {
-                    handleMarkUnmark(input, false);
-                    saveQuietly();
-                    continue;
-                }
-
-                if (lower.equals("delete") || lower.startsWith("delete ")) {
-                    handleDelete(input);
-                    saveQuietly();
-                    continue;
+                synchronized (storage.getTaskLock()) {
+                    handler.handle(input);
                 }
-
-                Task newTask = Parser.parseTask(input);
-                tasks.add(newTask);
-                ui.showAddTask(newTask, tasks.size());
-                saveQuietly();
-
             } catch (KingSimException e) {
-                ui.showError(e.getMessage());
+                showError(e);
             } catch (Exception e) {
+                metrics.recordError(KingSimException.Kind.OTHER);
                 ui.showError("Something unexpected happened. KingSIM needs a second to recover.");
             }
+            metrics.end();
         }
 
         ui.close();
@@ -88,25 +120,270 @@ public class KingSIM {
     /**
      * Starts the chatbot application.
      *
+     * Pass {@code --journal} to journal changes instead of rewriting the data file, and
+     * {@code --durability immediate|fsync|group|exit} (with {@code --group-ms N} for group
+     * commits) to choose how strongly changes are persisted. Pass {@code --batch FILE}
+     * (with {@code --save-every N} to save periodically) to run the commands in a file, and
+     * {@code --serve PORT} to serve a session to each user connecting to that port. Pass
+     * {@code --jfr} to also report every command as an event to JDK Flight Recorder.
+     *
      * @param args Command line arguments.
      */
     public static void main(String[] args) {
-        new KingSIM("./data/kingsim.txt").run();
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (KingSimException e) {
+            new Ui().showError(e.getMessage());
+            return;
+        }
+        if (options.getServerPort() >= 0) {
+            serve(options);
+            return;
+        }
+
+        Ui ui;
+        try {
+            ui = options.getBatchFile() == null ? new Ui() : Ui.forBatch(options.getBatchFile());
+        } catch (IOException e) {
+            new Ui().showError(KingSimException.batchFileUnreadable(options.getBatchFile()).getMessage());
+            return;
+        }
+        new KingSIM("./data/kingsim.txt", options, ui).run();
+    }
+
+    /**
+     * Serves sessions on the port chosen by the options until the process is stopped.
+     * Each user's tasks are kept in their own file in {@code ./data/users}.
+     */
+    private static void serve(Options options) {
+        try (SessionServer server = new SessionServer(options.getServerPort(), Paths.get("data", "users"), options)) {
+            System.out.println("KingSIM is serving sessions on localhost port " + server.getPort());
+            server.run();
+        } catch (IOException e) {
+            new Ui().showError(KingSimException.serverUnavailable(options.getServerPort()).getMessage());
+        }
+    }
+
+    /**
+     * Registers the handler for every command word.
+     */
+    private void registerCommands() {
+        register("bye", this::handleBye);
+        register("list", this::handleList);
+        register("find", this::handleFind);
+        register("due", this::handleDueBefore);
+        register("on", this::handleOn);
+        register("between", this::handleBetween);
+        register("mark", input -> handleMarkUnmark(input, true));
+        register("unmark", input -> handleMarkUnmark(input, false));
+        register("delete", this::handleDelete);
+        register("use", this::handleUse);
+        register("stats", this::handleStats);
+        register("todo", input -> handleAdd(Parser.parseTodo(input)));
+        register("deadline", input -> handleAdd(Parser.parseDeadline(input)));
+        register("event", input -> handleAdd(Parser.parseEvent(input)));
+    }
+
+    /**
+     * Registers the handler for a command word, timing each run of it in {@link #metrics}.
+     */
+    private void register(String name, CommandRegistry.Handler handler) {
+        int command = metrics.addCommand(name);
+        commands.register(name, input -> {
+            metrics.begin(command);
+            handler.handle(input);
+        });
     }
 
     /**
-     * Saves the current task list to storage.
+     * Saves a change made to the task list to storage.
      *
+     * @param change Change that was made.
      * @throws KingSimException If saving to the data file fails.
      */
-
-    private void saveQuietly() throws KingSimException {
+    private void saveQuietly(Change change) throws KingSimException {
+        if (isBatch) {
+            current.setUnsavedChanges(true);
+            return;
+        }
         try {
-            storage.save(tasks.getAll());
+            storage.saveChange(tasks.getAll(), change, tasks.getNextId());
         } catch (IOException e) {
             throw KingSimException.saveFailed();
+        } finally {
+            metrics.lap(Metrics.Phase.PERSIST);
+        }
+    }
+
+    /**
+     * Shows an error if a save made in the background, or made while closing a list not
+     * in use, has failed since the last command.
+     */
+    private void showDeferredSaveFailure() {
+        try {
+            storage.checkDeferredFailure();
+        } catch (IOException e) {
+            showError(KingSimException.saveFailed());
+        }
+        if (workspace.takeFailure() != null) {
+            showError(KingSimException.saveFailed());
+        }
+    }
+
+    /**
+     * Saves the task list in batch mode once {@link #saveEvery} commands have run since
+     * the last save. A failure is shown to the user and the save is tried again later.
+     */
+    private void saveBatchIfDue() {
+        if (!isBatch || saveEvery <= 0 || commandsSinceSave++ < saveEvery) {
+            return;
+        }
+        commandsSinceSave = 1;
+        saveBatch();
+    }
+
+    /**
+     * Saves the whole task list if batch mode has changes not yet saved.
+     */
+    private void saveBatch() {
+        if (!current.hasUnsavedChanges()) {
+            return;
+        }
+        try {
+            storage.save(tasks.getAll(), tasks.getNextId());
+            current.setUnsavedChanges(false);
+        } catch (IOException e) {
+            showError(KingSimException.saveFailed());
+        }
+    }
+
+    /**
+     * Saves every open list and finishes any pending storage work before exiting.
+     * A failure is shown to the user but does not stop the exit.
+     */
+    private void closeStorage() {
+        try {
+            workspace.close();
+        } catch (IOException e) {
+            showError(KingSimException.saveFailed());
+        }
+    }
+
+    /**
+     * Saves any pending changes and says goodbye.
+     *
+     * @param input Full user input for the bye command.
+     * @throws KingSimException If anything follows the command word.
+     */
+    private void handleBye(String input) throws KingSimException {
+        if (input.length() != 3) {
+            throw KingSimException.unknownCommand();
+        }
+        closeStorage();
+        ui.showBye();
+        isExiting = true;
+    }
+
+    /**
+     * Switches to the task list named in the user input, loading it if needed.
+     *
+     * @param input Full user input for the use command.
+     * @throws KingSimException If the list name is missing or invalid.
+     */
+    private void handleUse(String input) throws KingSimException {
+        String name = input.substring(3).trim().toLowerCase(Locale.ROOT);
+        if (!Workspace.isValidName(name)) {
+            throw KingSimException.invalidListName();
+        }
+
+        boolean isLoaded = workspace.isOpen(name);
+        use(workspace.open(name));
+        ui.showUseList(name, tasks.size());
+        if (!isLoaded) {
+            ui.showLoadProblems(storage.getLoadProblems());
+        }
+    }
+
+    /**
+     * Shows the command latencies, error counts and bytes written so far.
+     *
+     * @param input Full user input for the stats command.
+     * @throws KingSimException If anything follows the command word.
+     */
+    private void handleStats(String input) throws KingSimException {
+        if (input.length() != 5) {
+            throw KingSimException.unknownCommand();
+        }
+        ui.showStats(metrics.describe(workspace.getBytesWritten()));
+    }
+
+    private void use(Workspace.OpenList list) {
+        current = list;
+        storage = list.getStorage();
+        tasks = list.getTasks();
+    }
+
+    /**
+     * Adds a new task to the list, or shows why the user input was invalid.
+     *
+     * @param parsed Task parsed from the user input, or the parsing error.
+     * @throws KingSimException If saving fails.
+     */
+    private void handleAdd(ParseResult<Task> parsed) throws KingSimException {
+        metrics.lap(Metrics.Phase.PARSE);
+        if (!parsed.isOk()) {
+            showError(parsed.getError());
+            return;
+        }
+
+        Task newTask = parsed.getValue();
+        tasks.add(newTask);
+        metrics.lap(Metrics.Phase.EXECUTE);
+        ui.showAddTask(newTask, tasks.size());
+        metrics.lap(Metrics.Phase.RENDER);
+        saveQuietly(Change.added(newTask));
+    }
+
+    /**
+     * Shows the whole task list, the list with task IDs, or the part of it given in the
+     * user input. Only the tasks in the requested part are formatted.
+     *
+     * @param input Full user input for the list command.
+     * @throws KingSimException If the range or page is invalid or has no tasks in it.
+     */
+    private void handleList(String input) throws KingSimException {
+        String rest = input.substring(4).trim();
+        if (rest.isEmpty()) {
+            metrics.lap(Metrics.Phase.PARSE);
+            ui.showList(tasks.getAll());
+            metrics.lap(Metrics.Phase.RENDER);
+            return;
         }
+        if (rest.equalsIgnoreCase("ids")) {
+            metrics.lap(Metrics.Phase.PARSE);
+            ui.showListWithIds(tasks.getAll());
+            metrics.lap(Metrics.Phase.RENDER);
+            return;
+        }
+
+        int[] range = Parser.parseListRange(rest);
+        if (tasks.isEmpty()) {
+            metrics.lap(Metrics.Phase.PARSE);
+            ui.showList(tasks.getAll());
+            metrics.lap(Metrics.Phase.RENDER);
+            return;
+        }
+        int from = range[0];
+        int to = Math.min(range[1], tasks.size());
+        if (from >= to) {
+            throw KingSimException.invalidListRange();
+        }
+        metrics.lap(Metrics.Phase.PARSE);
+        ui.showListSlice(tasks.getAll().subList(from, to), from + 1, tasks.size());
+        metrics.lap(Metrics.Phase.RENDER);
     }
+
     /**
      * Finds and shows tasks whose descriptions contain the given keyword.
      *
@@ -120,48 +397,258 @@ public class KingSIM {
             throw KingSimException.emptyFindKeyword();
         }
 
-        ui.showFindResults(tasks.find(keyword));
+        metrics.lap(Metrics.Phase.PARSE);
+        showFindResults(tasks.find(keyword));
+    }
+
+    /**
+     * Shows deadlines due before the time given in the user input.
+     *
+     * @param input Full user input for the due before command.
+     * @throws KingSimException If the command format or time is invalid.
+     */
+    private void handleDueBefore(String input) throws KingSimException {
+        String rest = input.substring(3).trim();
+        if (!rest.toLowerCase().startsWith("before ")) {
+            throw KingSimException.invalidDueBeforeFormat();
+        }
+
+        LocalDateTime time = Parser.parseDateTime(rest.substring(7).trim(), "2026-03-10 1800");
+        metrics.lap(Metrics.Phase.PARSE);
+        showFindResults(tasks.findDueBefore(time));
+    }
+
+    /**
+     * Shows deadlines due and events taking place on the date given in the user input.
+     *
+     * @param input Full user input for the on command.
+     * @throws KingSimException If the date is missing or invalid.
+     */
+    private void handleOn(String input) throws KingSimException {
+        String dateText = input.substring(2).trim();
+        if (dateText.isEmpty()) {
+            throw KingSimException.invalidOnFormat();
+        }
+
+        LocalDate date = Parser.parseDate(dateText);
+        metrics.lap(Metrics.Phase.PARSE);
+        showFindResults(tasks.findBetween(date.atStartOfDay(), date.atTime(LocalTime.MAX)));
+    }
+
+    /**
+     * Shows deadlines due and events taking place between the two times given in the user input.
+     *
+     * @param input Full user input for the between command.
+     * @throws KingSimException If the command format or times are invalid.
+     */
+    private void handleBetween(String input) throws KingSimException {
+        String rest = input.substring(7).trim();
+        int andPos = rest.toLowerCase().indexOf(" and ");
+        if (andPos == -1) {
+            throw KingSimException.invalidBetweenFormat();
+        }
+
+        LocalDateTime from = Parser.parseDateTime(rest.substring(0, andPos).trim(), "2026-03-10 0900");
+        LocalDateTime to = Parser.parseDateTime(rest.substring(andPos + 5).trim(), "2026-03-12 1800");
+        if (from.isAfter(to)) {
+            throw KingSimException.invalidTimeRange();
+        }
+        metrics.lap(Metrics.Phase.PARSE);
+        showFindResults(tasks.findBetween(from, to));
     }
 
     /**
-     * Marks or unmarks the task specified in the user input.
+     * Marks or unmarks the task specified in the user input, or each of the tasks if the
+     * input gives several.
      *
      * @param input Full user input for the mark or unmark command.
      * @param isMark True to mark the task as done, false to unmark it.
-     * @throws KingSimException If the task number is missing or invalid.
+     * @throws KingSimException If saving fails, or no tasks match the filter given.
      */
     private void handleMarkUnmark(String input, boolean isMark) throws KingSimException {
         String command = isMark ? "mark" : "unmark";
-        int index = Parser.parseTaskIndex(input, command);
+        if (Parser.isTaskSelection(input, command)) {
+            handleBulkMarkUnmark(input, command, isMark);
+            return;
+        }
+        ParseResult<Integer> resolved = resolveTaskIndex(input, command);
+        metrics.lap(Metrics.Phase.PARSE);
+        if (!resolved.isOk()) {
+            showError(resolved.getError());
+            return;
+        }
 
-        if (index < 0 || index >= tasks.size()) {
-            throw KingSimException.invalidTaskNumber();
+        int index = resolved.getValue();
+        if (isMark) {
+            Task task = tasks.setDone(index, true);
+            metrics.lap(Metrics.Phase.EXECUTE);
+            ui.showMarkMessage("Nice! I've marked this task as done:", task);
+            metrics.lap(Metrics.Phase.RENDER);
+            saveQuietly(Change.marked(index));
+        } else {
+            Task task = tasks.setDone(index, false);
+            metrics.lap(Metrics.Phase.EXECUTE);
+            ui.showMarkMessage("Alright, I've marked this task as not done yet:", task);
+            metrics.lap(Metrics.Phase.RENDER);
+            saveQuietly(Change.unmarked(index));
+        }
+    }
+
+    /**
+     * Marks or unmarks all the tasks given by a list of task numbers and ranges or by a
+     * filter, then saves the change once.
+     *
+     * @param input Full user input for the mark or unmark command.
+     * @param command Command name at the start of the input.
+     * @param isMark True to mark the tasks as done, false to unmark them.
+     * @throws KingSimException If saving fails, or no tasks match the filter given.
+     */
+    private void handleBulkMarkUnmark(String input, String command, boolean isMark) throws KingSimException {
+        ParseResult<TaskSelection> selection = Parser.parseTaskSelection(input, command);
+        if (!selection.isOk()) {
+            metrics.lap(Metrics.Phase.PARSE);
+            showError(selection.getError());
+            return;
         }
+        int[] indexes = selectTasks(selection.getValue());
+        metrics.lap(Metrics.Phase.PARSE);
 
+        List<Task> changed = tasks.setDone(indexes, isMark);
+        metrics.lap(Metrics.Phase.EXECUTE);
+        String subject = changed.size() == 1 ? "this task" : "these " + changed.size() + " tasks";
         if (isMark) {
-            tasks.get(index).markDone();
-            ui.showMarkMessage("Nice! I've marked this task as done:", tasks.get(index));
+            ui.showMarkMessage("Nice! I've marked " + subject + " as done:", changed);
         } else {
-            tasks.get(index).unmarkDone();
-            ui.showMarkMessage("Alright, I've marked this task as not done yet:", tasks.get(index));
+            ui.showMarkMessage("Alright, I've marked " + subject + " as not done yet:", changed);
         }
+        metrics.lap(Metrics.Phase.RENDER);
+        saveQuietly(isMark ? Change.markedAll(indexes) : Change.unmarkedAll(indexes));
     }
+
     /**
-     * Deletes the task specified in the user input.
+     * Deletes the task specified in the user input, or each of the tasks if the input
+     * gives several.
      *
      * @param input Full user input for the delete command.
-     * @throws KingSimException If the task number is missing or invalid.
+     * @throws KingSimException If saving fails, or no tasks match the filter given.
      */
-
     private void handleDelete(String input) throws KingSimException {
         String command = "delete";
-        int index = Parser.parseTaskIndex(input, command);
-
-        if (index < 0 || index >= tasks.size()) {
-            throw KingSimException.invalidTaskNumber();
+        if (Parser.isTaskSelection(input, command)) {
+            handleBulkDelete(input, command);
+            return;
+        }
+        ParseResult<Integer> resolved = resolveTaskIndex(input, command);
+        metrics.lap(Metrics.Phase.PARSE);
+        if (!resolved.isOk()) {
+            showError(resolved.getError());
+            return;
         }
 
+        int index = resolved.getValue();
         Task removed = tasks.remove(index);
+        metrics.lap(Metrics.Phase.EXECUTE);
         ui.showDeleteMessage(removed, tasks.size());
+        metrics.lap(Metrics.Phase.RENDER);
+        saveQuietly(Change.deleted(index));
+    }
+
+    /**
+     * Deletes all the tasks given by a list of task numbers and ranges or by a filter,
+     * removing them from the list in one pass and then saving the change once.
+     *
+     * @param input Full user input for the delete command.
+     * @param command Command name at the start of the input.
+     * @throws KingSimException If saving fails, or no tasks match the filter given.
+     */
+    private void handleBulkDelete(String input, String command) throws KingSimException {
+        ParseResult<TaskSelection> selection = Parser.parseTaskSelection(input, command);
+        if (!selection.isOk()) {
+            metrics.lap(Metrics.Phase.PARSE);
+            showError(selection.getError());
+            return;
+        }
+        int[] indexes = selectTasks(selection.getValue());
+        metrics.lap(Metrics.Phase.PARSE);
+
+        List<Task> removed = tasks.removeAll(indexes);
+        metrics.lap(Metrics.Phase.EXECUTE);
+        ui.showDeleteMessage(removed, tasks.size());
+        metrics.lap(Metrics.Phase.RENDER);
+        saveQuietly(Change.deletedAll(indexes));
+    }
+
+    /**
+     * Returns the indexes of the tasks a bulk command applies to.
+     *
+     * @param selection Tasks given in the command.
+     * @return Indexes of the selected tasks, in increasing order without repeats.
+     * @throws KingSimException If a task number is past the end of the list, or no tasks
+     *     match the filter.
+     */
+    private int[] selectTasks(TaskSelection selection) throws KingSimException {
+        int[] indexes;
+        switch (selection.getKind()) {
+        case DONE:
+            indexes = tasks.indexesOfDone();
+            break;
+        case MATCHING:
+            indexes = tasks.indexesOfMatches(selection.getKeyword());
+            break;
+        default:
+            indexes = selection.getIndexes(tasks.size());
+            break;
+        }
+        if (indexes.length == 0) {
+            throw KingSimException.noTasksSelected();
+        }
+        return indexes;
+    }
+
+    /**
+     * Shows the tasks a search found, timing the search and the reply separately.
+     *
+     * @param found Tasks found by the search.
+     */
+    private void showFindResults(List<Task> found) {
+        metrics.lap(Metrics.Phase.EXECUTE);
+        ui.showFindResults(found);
+        metrics.lap(Metrics.Phase.RENDER);
+    }
+
+    /**
+     * Shows an error to the user and counts it by kind.
+     *
+     * @param e Error to be shown.
+     */
+    private void showError(KingSimException e) {
+        metrics.recordError(e.getKind());
+        ui.showError(e.getMessage());
+    }
+
+    /**
+     * Returns the position of the task a command refers to, given either as a task
+     * number or as a task ID such as {@code #12}.
+     *
+     * @param input Full user input for the command.
+     * @param command Command name at the start of the input.
+     * @return Zero-based task index, or the error if the task number or ID is missing,
+     *     invalid, or unknown.
+     */
+    private ParseResult<Integer> resolveTaskIndex(String input, String command) {
+        if (Parser.hasTaskId(input, command)) {
+            ParseResult<Long> id = Parser.parseTaskId(input, command);
+            if (!id.isOk()) {
+                return ParseResult.error(id.getError());
+            }
+            int index = tasks.indexOfId(id.getValue());
+            return index < 0 ? ParseResult.error(KingSimException.unknownTaskId()) : ParseResult.ok(index);
+        }
+
+        ParseResult<Integer> index = Parser.parseTaskIndex(input, command);
+        if (index.isOk() && (index.getValue() < 0 || index.getValue() >= tasks.size())) {
+            return ParseResult.error(KingSimException.invalidTaskNumber());
+        }
+        return index;
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,116 @@ package kingsim;
 
 /**
  * Represents an exception specific to the KingSIM application.
+ *
+ * <p>The user only ever sees the message, so the exceptions returned by the static
+ * factories do not record a stack trace, and those with a fixed message are created
+ * once and reused.
  */
 public class KingSimException extends Exception {
+    /**
+     * Identifies the kind of problem an exception reports, one for each static factory,
+     * so that errors can be counted by kind without looking at their messages.
+     */
+    public enum Kind {
+        EMPTY_INPUT,
+        EMPTY_FIND_KEYWORD,
+        INVALID_TASK_NUMBER,
+        INVALID_NUMBER,
+        MISSING_NUMBER,
+        INVALID_LIST_FORMAT,
+        INVALID_LIST_RANGE,
+        UNKNOWN_TASK_ID,
+        INVALID_TASK_ID,
+        MISSING_TASK_ID,
+        INVALID_TASK_SELECTION,
+        NO_TASKS_SELECTED,
+        EMPTY_TODO,
+        INCOMPLETE_DEADLINE,
+        MISSING_BY,
+        EMPTY_DEADLINE_DESCRIPTION,
+        EMPTY_DEADLINE_DATE,
+        INCOMPLETE_EVENT,
+        INVALID_EVENT_FORMAT,
+        EMPTY_EVENT_NAME,
+        EMPTY_EVENT_START,
+        EMPTY_EVENT_END,
+        INVALID_EVENT_RANGE,
+        INVALID_DATE_TIME,
+        INVALID_DATE,
+        INVALID_DUE_BEFORE_FORMAT,
+        INVALID_ON_FORMAT,
+        INVALID_BETWEEN_FORMAT,
+        INVALID_TIME_RANGE,
+        UNKNOWN_COMMAND,
+        SAVE_FAILED,
+        UNKNOWN_OPTION,
+        MISSING_OPTION_VALUE,
+        INVALID_OPTION_VALUE,
+        BATCH_FILE_UNREADABLE,
+        INVALID_USER_NAME,
+        USER_ALREADY_CONNECTED,
+        INVALID_LIST_NAME,
+        SERVER_UNAVAILABLE,
+        /** Created with the public constructor. */
+        OTHER
+    }
+
+    private static final KingSimException EMPTY_INPUT = new KingSimException(Kind.EMPTY_INPUT,
+            "No input received. Try: list, todo <task>, deadline <task> /by <when>", false);
+    private static final KingSimException EMPTY_FIND_KEYWORD = new KingSimException(Kind.EMPTY_FIND_KEYWORD,
+            "Please provide a keyword to search. Try: find book", false);
+    private static final KingSimException INVALID_TASK_NUMBER = new KingSimException(Kind.INVALID_TASK_NUMBER,
+            "That task number doesn’t exist yet.", false);
+    private static final KingSimException INVALID_LIST_FORMAT = new KingSimException(Kind.INVALID_LIST_FORMAT,
+            "Format: list, list ids, list <from>-<to> or list page <n>", false);
+    private static final KingSimException INVALID_LIST_RANGE = new KingSimException(Kind.INVALID_LIST_RANGE,
+            "There are no tasks in that part of your list. Try: list 1-20 or list page 1", false);
+    private static final KingSimException UNKNOWN_TASK_ID = new KingSimException(Kind.UNKNOWN_TASK_ID,
+            "No task has that ID. Use list ids to see them.", false);
+    private static final KingSimException NO_TASKS_SELECTED = new KingSimException(Kind.NO_TASKS_SELECTED,
+            "No tasks match that, so nothing was changed.", false);
+    private static final KingSimException EMPTY_TODO = new KingSimException(Kind.EMPTY_TODO,
+            "Your todo needs a description. Try: todo buy milk", false);
+    private static final KingSimException INCOMPLETE_DEADLINE = new KingSimException(Kind.INCOMPLETE_DEADLINE,
+            "A deadline needs details. Try: deadline return book /by 2026-03-10 1800", false);
+    private static final KingSimException MISSING_BY = new KingSimException(Kind.MISSING_BY,
+            "Missing /by. Format: deadline <task> /by yyyy-MM-dd HHmm", false);
+    private static final KingSimException EMPTY_DEADLINE_DESCRIPTION = new KingSimException(
+            Kind.EMPTY_DEADLINE_DESCRIPTION, "Deadline description can't be empty.", false);
+    private static final KingSimException EMPTY_DEADLINE_DATE = new KingSimException(Kind.EMPTY_DEADLINE_DATE,
+            "Please add the due date after /by.", false);
+    private static final KingSimException INCOMPLETE_EVENT = new KingSimException(Kind.INCOMPLETE_EVENT,
+            "An event needs details. Try: event meeting /from 2026-03-10 1400 /to 2026-03-10 1600", false);
+    private static final KingSimException INVALID_EVENT_FORMAT = new KingSimException(Kind.INVALID_EVENT_FORMAT,
+            "Format: event <name> /from yyyy-MM-dd HHmm /to yyyy-MM-dd HHmm", false);
+    private static final KingSimException EMPTY_EVENT_NAME = new KingSimException(Kind.EMPTY_EVENT_NAME,
+            "Event name can't be empty.", false);
+    private static final KingSimException EMPTY_EVENT_START = new KingSimException(Kind.EMPTY_EVENT_START,
+            "Please include a start date and time after /from.", false);
+    private static final KingSimException EMPTY_EVENT_END = new KingSimException(Kind.EMPTY_EVENT_END,
+            "Please include an end date and time after /to.", false);
+    private static final KingSimException INVALID_EVENT_RANGE = new KingSimException(Kind.INVALID_EVENT_RANGE,
+            "Event end time cannot be before start time. I can manage tasks, not time travel.", false);
+    private static final KingSimException INVALID_DUE_BEFORE_FORMAT = new KingSimException(
+            Kind.INVALID_DUE_BEFORE_FORMAT, "Format: due before yyyy-MM-dd HHmm", false);
+    private static final KingSimException INVALID_ON_FORMAT = new KingSimException(Kind.INVALID_ON_FORMAT,
+            "Format: on yyyy-MM-dd", false);
+    private static final KingSimException INVALID_BETWEEN_FORMAT = new KingSimException(Kind.INVALID_BETWEEN_FORMAT,
+            "Format: between yyyy-MM-dd HHmm and yyyy-MM-dd HHmm", false);
+    private static final KingSimException INVALID_TIME_RANGE = new KingSimException(Kind.INVALID_TIME_RANGE,
+            "The start of the range can't be after its end.", false);
+    private static final KingSimException UNKNOWN_COMMAND = new KingSimException(Kind.UNKNOWN_COMMAND,
+            "Sorry, I don’t know that command. Try: list, todo, deadline, event, mark, unmark, delete, bye", false);
+    private static final KingSimException SAVE_FAILED = new KingSimException(Kind.SAVE_FAILED,
+            "I couldn't save your tasks to disk.", false);
+    private static final KingSimException INVALID_USER_NAME = new KingSimException(Kind.INVALID_USER_NAME,
+            "Please start by sending your user name: up to 32 letters, digits, - or _.", false);
+    private static final KingSimException USER_ALREADY_CONNECTED = new KingSimException(Kind.USER_ALREADY_CONNECTED,
+            "That user is already connected.", false);
+    private static final KingSimException INVALID_LIST_NAME = new KingSimException(Kind.INVALID_LIST_NAME,
+            "Please give a list name of up to 32 letters, digits, - or _. Example: use work", false);
+
+    private final Kind kind;
 
     /**
      * Creates a KingSimException with the given message.
@@ -12,6 +120,29 @@ public class KingSimException extends Exception {
      */
     public KingSimException(String message) {
         super(message);
+        this.kind = Kind.OTHER;
+    }
+
+    /**
+     * Creates a KingSimException of the given kind with the given message, optionally
+     * without a stack trace.
+     *
+     * @param kind Kind of problem reported.
+     * @param message Error message to show to the user.
+     * @param hasStackTrace False to skip recording the stack trace.
+     */
+    protected KingSimException(Kind kind, String message, boolean hasStackTrace) {
+        super(message, null, false, hasStackTrace);
+        this.kind = kind;
+    }
+
+    /**
+     * Returns the kind of problem this exception reports.
+     *
+     * @return Kind of problem.
+     */
+    public Kind getKind() {
+        return kind;
     }
 
     /**
@@ -20,8 +151,7 @@ public class KingSimException extends Exception {
      * @return Exception for empty user input.
      */
     public static KingSimException emptyInput() {
-        return new KingSimException(
-                "No input received. Try: list, todo <task>, deadline <task> /by <when>");
+        return EMPTY_INPUT;
     }
 
     /**
@@ -30,8 +160,7 @@ public class KingSimException extends Exception {
      * @return Exception for empty find command.
      */
     public static KingSimException emptyFindKeyword() {
-        return new KingSimException(
-                "Please provide a keyword to search. Try: find book");
+        return EMPTY_FIND_KEYWORD;
     }
 
     /**
@@ -40,7 +169,7 @@ public class KingSimException extends Exception {
      * @return Exception for invalid or out-of-range task number.
      */
     public static KingSimException invalidTaskNumber() {
-        return new KingSimException("That task number doesn’t exist yet.");
+        return INVALID_TASK_NUMBER;
     }
 
     /**
@@ -50,8 +179,8 @@ public class KingSimException extends Exception {
      * @return Exception for non-numeric task number.
      */
     public static KingSimException invalidNumber(String command) {
-        return new KingSimException(
-                "That doesn’t look like a number. Try: " + command + " 1");
+        return new KingSimException(Kind.INVALID_NUMBER,
+                "That doesn’t look like a number. Try: " + command + " 1", false);
     }
 
     /**
@@ -61,8 +190,77 @@ public class KingSimException extends Exception {
      * @return Exception for missing task number.
      */
     public static KingSimException missingNumber(String command) {
-        return new KingSimException(
-                "Which task number? Try: " + command + " 1");
+        return new KingSimException(Kind.MISSING_NUMBER,
+                "Which task number? Try: " + command + " 1", false);
+    }
+
+    /**
+     * Returns an exception for a list command that is not a range or page.
+     *
+     * @return Exception for bad list format.
+     */
+    public static KingSimException invalidListFormat() {
+        return INVALID_LIST_FORMAT;
+    }
+
+    /**
+     * Returns an exception for a list range or page with no tasks in it.
+     *
+     * @return Exception for invalid list range.
+     */
+    public static KingSimException invalidListRange() {
+        return INVALID_LIST_RANGE;
+    }
+
+    /**
+     * Returns an exception for a task ID that no task has.
+     *
+     * @return Exception for unknown task ID.
+     */
+    public static KingSimException unknownTaskId() {
+        return UNKNOWN_TASK_ID;
+    }
+
+    /**
+     * Returns an exception for a non-numeric task ID after a command.
+     *
+     * @param command The command expecting a task ID.
+     * @return Exception for non-numeric task ID.
+     */
+    public static KingSimException invalidTaskId(String command) {
+        return new KingSimException(Kind.INVALID_TASK_ID,
+                "That doesn’t look like a task ID. Try: " + command + " #1", false);
+    }
+
+    /**
+     * Returns an exception for a missing task ID after a command.
+     *
+     * @param command The command expecting a task ID.
+     * @return Exception for missing task ID.
+     */
+    public static KingSimException missingTaskId(String command) {
+        return new KingSimException(Kind.MISSING_TASK_ID,
+                "Which task ID? Try: " + command + " #1", false);
+    }
+
+    /**
+     * Returns an exception for a list of task numbers, range, or filter that cannot be read.
+     *
+     * @param command The command expecting the tasks.
+     * @return Exception for bad task selection.
+     */
+    public static KingSimException invalidTaskSelection(String command) {
+        return new KingSimException(Kind.INVALID_TASK_SELECTION, "Format: " + command + " 3, " + command
+                + " 1-5, " + command + " 3,7,9-20, " + command + " done or " + command + " find <keyword>", false);
+    }
+
+    /**
+     * Returns an exception for a filter that no task matches.
+     *
+     * @return Exception for empty task selection.
+     */
+    public static KingSimException noTasksSelected() {
+        return NO_TASKS_SELECTED;
     }
 
     /**
@@ -71,8 +269,7 @@ public class KingSimException extends Exception {
      * @return Exception for blank todo.
      */
     public static KingSimException emptyTodo() {
-        return new KingSimException(
-                "Your todo needs a description. Try: todo buy milk");
+        return EMPTY_TODO;
     }
 
     /**
@@ -81,8 +278,7 @@ public class KingSimException extends Exception {
      * @return Exception for blank deadline.
      */
     public static KingSimException incompleteDeadline() {
-        return new KingSimException(
-                "A deadline needs details. Try: deadline return book /by 2026-03-10 1800");
+        return INCOMPLETE_DEADLINE;
     }
 
     /**
@@ -91,8 +287,7 @@ public class KingSimException extends Exception {
      * @return Exception for bad deadline format.
      */
     public static KingSimException missingBy() {
-        return new KingSimException(
-                "Missing /by. Format: deadline <task> /by yyyy-MM-dd HHmm");
+        return MISSING_BY;
     }
 
     /**
@@ -101,7 +296,7 @@ public class KingSimException extends Exception {
      * @return Exception for blank deadline description.
      */
     public static KingSimException emptyDeadlineDescription() {
-        return new KingSimException("Deadline description can't be empty.");
+        return EMPTY_DEADLINE_DESCRIPTION;
     }
 
     /**
@@ -110,7 +305,7 @@ public class KingSimException extends Exception {
      * @return Exception for missing deadline date.
      */
     public static KingSimException emptyDeadlineDate() {
-        return new KingSimException("Please add the due date after /by.");
+        return EMPTY_DEADLINE_DATE;
     }
 
     /**
@@ -119,8 +314,7 @@ public class KingSimException extends Exception {
      * @return Exception for blank event.
      */
     public static KingSimException incompleteEvent() {
-        return new KingSimException(
-                "An event needs details. Try: event meeting /from 2026-03-10 1400 /to 2026-03-10 1600");
+        return INCOMPLETE_EVENT;
     }
 
     /**
@@ -129,8 +323,7 @@ public class KingSimException extends Exception {
      * @return Exception for bad event format.
      */
     public static KingSimException invalidEventFormat() {
-        return new KingSimException(
-                "Format: event <name> /from yyyy-MM-dd HHmm /to yyyy-MM-dd HHmm");
+        return INVALID_EVENT_FORMAT;
     }
 
     /**
@@ -139,7 +332,7 @@ public class KingSimException extends Exception {
      * @return Exception for blank event description.
      */
     public static KingSimException emptyEventName() {
-        return new KingSimException("Event name can't be empty.");
+        return EMPTY_EVENT_NAME;
     }
 
     /**
@@ -148,8 +341,7 @@ public class KingSimException extends Exception {
      * @return Exception for missing /from value.
      */
     public static KingSimException emptyEventStart() {
-        return new KingSimException(
-                "Please include a start date and time after /from.");
+        return EMPTY_EVENT_START;
     }
 
     /**
@@ -158,8 +350,7 @@ public class KingSimException extends Exception {
      * @return Exception for missing /to value.
      */
     public static KingSimException emptyEventEnd() {
-        return new KingSimException(
-                "Please include an end date and time after /to.");
+        return EMPTY_EVENT_END;
     }
 
     /**
@@ -168,8 +359,7 @@ public class KingSimException extends Exception {
      * @return Exception for event end before start.
      */
     public static KingSimException invalidEventRange() {
-        return new KingSimException(
-                "Event end time cannot be before start time. I can manage tasks, not time travel.");
+        return INVALID_EVENT_RANGE;
     }
 
     /**
@@ -179,8 +369,55 @@ public class KingSimException extends Exception {
      * @return Exception for bad date-time format.
      */
     public static KingSimException invalidDateTime(String example) {
-        return new KingSimException(
-                "Use date and time format yyyy-MM-dd HHmm, e.g. " + example);
+        return new KingSimException(Kind.INVALID_DATE_TIME,
+                "Use date and time format yyyy-MM-dd HHmm, e.g. " + example, false);
+    }
+
+    /**
+     * Returns an exception for invalid date format.
+     *
+     * @param example Example date to show.
+     * @return Exception for bad date format.
+     */
+    public static KingSimException invalidDate(String example) {
+        return new KingSimException(Kind.INVALID_DATE,
+                "Use date format yyyy-MM-dd, e.g. " + example, false);
+    }
+
+    /**
+     * Returns an exception for invalid due before command.
+     *
+     * @return Exception for bad due before format.
+     */
+    public static KingSimException invalidDueBeforeFormat() {
+        return INVALID_DUE_BEFORE_FORMAT;
+    }
+
+    /**
+     * Returns an exception for invalid on command.
+     *
+     * @return Exception for bad on format.
+     */
+    public static KingSimException invalidOnFormat() {
+        return INVALID_ON_FORMAT;
+    }
+
+    /**
+     * Returns an exception for invalid between command.
+     *
+     * @return Exception for bad between format.
+     */
+    public static KingSimException invalidBetweenFormat() {
+        return INVALID_BETWEEN_FORMAT;
+    }
+
+    /**
+     * Returns an exception for a time range that ends before it starts.
+     *
+     * @return Exception for reversed time range.
+     */
+    public static KingSimException invalidTimeRange() {
+        return INVALID_TIME_RANGE;
     }
 
     /**
@@ -189,8 +426,7 @@ public class KingSimException extends Exception {
      * @return Exception for unsupported command.
      */
     public static KingSimException unknownCommand() {
-        return new KingSimException(
-                "Sorry, I don’t know that command. Try: list, todo, deadline, event, mark, unmark, delete, bye");
+        return UNKNOWN_COMMAND;
     }
 
     /**
@@ -199,6 +435,84 @@ public class KingSimException extends Exception {
      * @return Exception for storage save issues.
      */
     public static KingSimException saveFailed() {
-        return new KingSimException("I couldn't save your tasks to disk.");
+        return SAVE_FAILED;
+    }
+
+    /**
+     * Returns an exception for an unrecognised command line option.
+     *
+     * @param option The option given.
+     * @return Exception for unknown option.
+     */
+    public static KingSimException unknownOption(String option) {
+        return new KingSimException(Kind.UNKNOWN_OPTION, "Unknown option: " + option, false);
+    }
+
+    /**
+     * Returns an exception for a command line option given without its value.
+     *
+     * @param option The option given.
+     * @return Exception for missing option value.
+     */
+    public static KingSimException missingOptionValue(String option) {
+        return new KingSimException(Kind.MISSING_OPTION_VALUE, "Option " + option + " needs a value.", false);
+    }
+
+    /**
+     * Returns an exception for a command line option with an invalid value.
+     *
+     * @param option The option given.
+     * @param value The value given.
+     * @return Exception for invalid option value.
+     */
+    public static KingSimException invalidOptionValue(String option, String value) {
+        return new KingSimException(Kind.INVALID_OPTION_VALUE, "Invalid value for " + option + ": " + value, false);
+    }
+
+    /**
+     * Returns an exception for a batch file that cannot be read.
+     *
+     * @param file The batch file given.
+     * @return Exception for unreadable batch file.
+     */
+    public static KingSimException batchFileUnreadable(String file) {
+        return new KingSimException(Kind.BATCH_FILE_UNREADABLE, "I couldn't read the batch file: " + file, false);
+    }
+
+    /**
+     * Returns an exception for a server session started with an invalid user name.
+     *
+     * @return Exception for invalid user name.
+     */
+    public static KingSimException invalidUserName() {
+        return INVALID_USER_NAME;
+    }
+
+    /**
+     * Returns an exception for a server session for a user who already has one.
+     *
+     * @return Exception for a user already connected.
+     */
+    public static KingSimException userAlreadyConnected() {
+        return USER_ALREADY_CONNECTED;
+    }
+
+    /**
+     * Returns an exception for a use command without a valid list name.
+     *
+     * @return Exception for invalid list name.
+     */
+    public static KingSimException invalidListName() {
+        return INVALID_LIST_NAME;
+    }
+
+    /**
+     * Returns an exception for a server that cannot listen on the given port.
+     *
+     * @param port Port the server was asked to listen on.
+     * @return Exception for unavailable server port.
+     */
+    public static KingSimException serverUnavailable(int port) {
+        return new KingSimException(Kind.SERVER_UNAVAILABLE, "I couldn't serve sessions on port " + port + ".", false);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package kingsim;
+
+/**
+ * Records durations in nanoseconds and reports their percentiles, without allocating.
+ *
+ * <p>Durations are counted in buckets that are exact below 8 ns and then split each power
+ * of two into 8 equal parts, so a reported percentile is never more than 12.5% above the
+ * true value. Durations from 8 ns to about 30 minutes fit in 312 buckets; longer ones go in
+ * the last bucket. The histogram is not thread-safe.
+ */
+class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos Duration in nanoseconds; negative values are recorded as 0.
+     */
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     *
+     * @return Number of durations.
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the durations recorded.
+     *
+     * @return Mean duration in nanoseconds, or 0 if none were recorded.
+     */
+    double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Returns the longest duration recorded.
+     *
+     * @return Longest duration in nanoseconds, or 0 if none were recorded.
+     */
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the duration that the given fraction of recorded durations do not exceed,
+     * rounded up to the end of its bucket.
+     *
+     * @param fraction Fraction between 0 and 1, such as 0.99 for the 99th percentile.
+     * @return Duration in nanoseconds, or 0 if none were recorded.
+     */
+    long getPercentile(double fraction) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(max, highestValueIn(bucket));
+            }
+        }
+        return max;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowest + width - 1;
+    }
+}
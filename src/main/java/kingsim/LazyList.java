@@ -0,0 +1,170 @@
+package kingsim;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Represents a list of tasks loaded from a text data file, in which each task is only
+ * decoded the first time it is needed.
+ *
+ * <p>The list keeps the bytes of the file and, for each task, where its line starts and
+ * ends and its ID, which {@link TextFormat#index} reads without decoding the line. Getting
+ * a task decodes its line once and keeps the task. Tasks added later are kept as they are.
+ * Deleting a task shifts every later one, as in an array. A task that was never decoded is
+ * saved by copying its line, so saving does not decode it either.
+ *
+ * <p>A decoded task's sequence number is its ID, so that tasks decoded at different times
+ * are still ordered as in the list.
+ */
+class LazyList extends AbstractList<Task> implements RandomAccess, IdList, CompactingList {
+    private final byte[] data;
+    private int[] starts;
+    private int[] ends;
+    private long[] ids;
+    private Task[] decoded;
+    private int size;
+
+    /**
+     * Creates a list of the tasks on the given lines of a data file.
+     *
+     * @param data Bytes of the data file, which must not change afterwards.
+     * @param starts Index of the first byte of each line.
+     * @param ends Index just after the last byte of each line, without the line separator.
+     * @param ids ID written on each line, or 0 if there is none.
+     */
+    LazyList(byte[] data, int[] starts, int[] ends, long[] ids) {
+        this(data, starts, ends, ids, new Task[starts.length], starts.length);
+    }
+
+    private LazyList(byte[] data, int[] starts, int[] ends, long[] ids, Task[] decoded, int size) {
+        this.data = data;
+        this.starts = starts;
+        this.ends = ends;
+        this.ids = ids;
+        this.decoded = decoded;
+        this.size = size;
+    }
+
+    /**
+     * Returns a copy of this list that later changes to either list do not affect. Only the
+     * positions are copied; the file bytes and any tasks already decoded are shared.
+     *
+     * @return Copy of this list.
+     */
+    LazyList copy() {
+        return new LazyList(data, Arrays.copyOf(starts, size), Arrays.copyOf(ends, size),
+                Arrays.copyOf(ids, size), Arrays.copyOf(decoded, size), size);
+    }
+
+    @Override
+    public long getId(int index) {
+        checkIndex(index);
+        return decoded[index] != null ? decoded[index].getId() : ids[index];
+    }
+
+    @Override
+    public boolean hasIncreasingIds() {
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            long id = getId(i);
+            if (id <= previous) {
+                return false;
+            }
+            previous = id;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the line of the task at the given position in the text format, without the
+     * line separator. A task that was never decoded has its line copied as it is.
+     *
+     * @param index Index of the task.
+     * @param out Destination of the line.
+     */
+    void writeLine(int index, ByteArrayOutputStream out) {
+        checkIndex(index);
+        if (decoded[index] == null) {
+            out.write(data, starts[index], ends[index] - starts[index]);
+        } else {
+            byte[] line = TextFormat.encode(decoded[index]).getBytes(StandardCharsets.UTF_8);
+            out.write(line, 0, line.length);
+        }
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        Task task = decoded[index];
+        if (task == null) {
+            task = TextFormat.decode(data, starts[index], ends[index]);
+            task.setSequence(task.getId());
+            decoded[index] = task;
+        }
+        return task;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task old = get(index);
+        decoded[index] = task;
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == starts.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            decoded = Arrays.copyOf(decoded, capacity);
+        }
+        shift(index, index + 1, size - index);
+        decoded[index] = task;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        shift(index + 1, index, size - index - 1);
+        size--;
+        decoded[size] = null;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void removeAll(int[] indexes) {
+        int oldSize = size;
+        size = CompactingList.compact(indexes, size, this::shift);
+        Arrays.fill(decoded, size, oldSize, null);
+        modCount++;
+    }
+
+    private void shift(int from, int to, int count) {
+        System.arraycopy(starts, from, starts, to, count);
+        System.arraycopy(ends, from, ends, to, count);
+        System.arraycopy(ids, from, ids, to, count);
+        System.arraycopy(decoded, from, decoded, to, count);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package kingsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the data structures a {@link TaskList} can keep its tasks in.
+ */
+public enum ListBacking {
+    /** An array; getting a task is O(1), but deleting shifts every later task. */
+    ARRAY,
+    /** A balanced tree, see {@link TaskTree}; getting, adding and deleting are all O(log n). */
+    TREE,
+    /**
+     * A copy-on-write array, see {@link SnapshotList}; reading never locks, so the list
+     * can be shared between threads, but adding and deleting copy the whole array.
+     */
+    SNAPSHOT,
+    /**
+     * An array of positions in the loaded text data file, see {@link LazyList}; loading only
+     * indexes the file, and each task is decoded the first time it is needed.
+     */
+    LAZY,
+    /**
+     * Columns of task fields with the descriptions packed into one byte array, see
+     * {@link ColumnarList}; far smaller than task objects, but every read creates a task.
+     */
+    COLUMNAR,
+    /**
+     * Fixed-width records and packed descriptions in direct memory outside the Java heap, see
+     * {@link OffHeapList}; the tasks then take no heap space and are never scanned by the
+     * garbage collector.
+     */
+    OFF_HEAP,
+    /**
+     * The records of {@link #OFF_HEAP} in the data file itself, mapped into memory; loading
+     * maps the file without decoding it, and each change is made straight to the file.
+     */
+    MAPPED;
+
+    /**
+     * Returns a list of this kind holding the given tasks. A {@link #LAZY} or {@link #MAPPED}
+     * list is made by {@link Storage#load()}, so the loaded list is used as it is.
+     *
+     * @param tasks Tasks to hold, in order.
+     * @return List of this kind.
+     */
+    List<Task> create(List<Task> tasks) {
+        switch (this) {
+        case TREE:
+            return new TaskTree(tasks);
+        case SNAPSHOT:
+            return new SnapshotList(tasks);
+        case LAZY:
+            return tasks;
+        case COLUMNAR:
+            return new ColumnarList(tasks);
+        case OFF_HEAP:
+            return new OffHeapList(tasks);
+        case MAPPED:
+            return tasks instanceof OffHeapList ? tasks : new OffHeapList(tasks);
+        default:
+            return tasks instanceof ArrayList ? tasks : new ArrayList<>(tasks);
+        }
+    }
+
+    /**
+     * Returns a task list keeping the given tasks in a list of this kind. A
+     * {@link #SNAPSHOT} list is a {@link ConcurrentTaskList}, safe to share between threads.
+     *
+     * @param tasks Tasks to hold, in order.
+     * @param indexType Kind of search index to keep.
+     * @return Task list of this kind.
+     */
+    TaskList createTaskList(List<Task> tasks, IndexType indexType) {
+        if (this == SNAPSHOT) {
+            return new ConcurrentTaskList(tasks, indexType);
+        }
+        return new TaskList(create(tasks), indexType);
+    }
+}
@@ -0,0 +1,184 @@
+package kingsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records how long each kind of command takes and how often each kind of error happens,
+ * cheaply enough to stay on all the time.
+ *
+ * <p>A command is timed from {@link #begin(int)} to {@link #end()}, and split into phases
+ * by calls to {@link #lap(Phase)}, each of which charges the time since the previous lap
+ * to the given phase. Every command and phase has its own {@link LatencyHistogram}, created
+ * the first time it records, so an idle session holds no histograms and only the first
+ * record of a command or phase allocates. If JFR events are turned on, each
+ * command is also reported as a {@link CommandEvent} to any running JFR recording; the
+ * event is begun with the command and ended with it.
+ *
+ * <p>One session records its own metrics, so they are not thread-safe.
+ */
+class Metrics {
+    /**
+     * Represents the parts a command's time is split into.
+     */
+    enum Phase {
+        /** Reading the user input. */
+        PARSE,
+        /** Changing or searching the task list. */
+        EXECUTE,
+        /** Saving changes to storage. */
+        PERSIST,
+        /** Writing the reply to the user. */
+        RENDER
+    }
+
+    private static final int PHASES = Phase.values().length;
+
+    private final boolean isJfrEnabled;
+    private final List<String> names = new ArrayList<>();
+    private final List<LatencyHistogram> totals = new ArrayList<>();
+    private final List<LatencyHistogram[]> phases = new ArrayList<>();
+    private final long[] errors = new long[KingSimException.Kind.values().length];
+    private final long[] currentPhaseNanos = new long[PHASES];
+    private int current = -1;
+    private CommandEvent event;
+    private long start;
+    private long lapStart;
+    private boolean isFailed;
+
+    /**
+     * Creates an empty set of metrics.
+     *
+     * @param isJfrEnabled True to also report each command as a JFR event.
+     */
+    Metrics(boolean isJfrEnabled) {
+        this.isJfrEnabled = isJfrEnabled;
+    }
+
+    /**
+     * Adds a kind of command to record.
+     *
+     * @param name Command word.
+     * @return Number identifying the command in {@link #begin(int)}.
+     */
+    int addCommand(String name) {
+        names.add(name);
+        totals.add(null);
+        phases.add(new LatencyHistogram[PHASES]);
+        return names.size() - 1;
+    }
+
+    /**
+     * Starts timing a command.
+     *
+     * @param command Number of the command from {@link #addCommand(String)}.
+     */
+    void begin(int command) {
+        current = command;
+        isFailed = false;
+        for (int i = 0; i < PHASES; i++) {
+            currentPhaseNanos[i] = 0;
+        }
+        event = isJfrEnabled ? CommandEvent.start() : null;
+        start = System.nanoTime();
+        lapStart = start;
+    }
+
+    /**
+     * Charges the time since the previous lap, or since the command began, to a phase.
+     * Does nothing if no command is being timed.
+     *
+     * @param phase Phase the time was spent in.
+     */
+    void lap(Phase phase) {
+        if (current < 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long elapsed = now - lapStart;
+        LatencyHistogram[] histograms = phases.get(current);
+        if (histograms[phase.ordinal()] == null) {
+            histograms[phase.ordinal()] = new LatencyHistogram();
+        }
+        histograms[phase.ordinal()].record(elapsed);
+        currentPhaseNanos[phase.ordinal()] += elapsed;
+        lapStart = now;
+    }
+
+    /**
+     * Stops timing the current command and records its total time.
+     * Does nothing if no command is being timed.
+     */
+    void end() {
+        if (current < 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (totals.get(current) == null) {
+            totals.set(current, new LatencyHistogram());
+        }
+        totals.get(current).record(now - start);
+        if (event != null) {
+            event.finish(names.get(current), currentPhaseNanos, isFailed);
+            event = null;
+        }
+        current = -1;
+    }
+
+    /**
+     * Counts an error shown to the user.
+     *
+     * @param kind Kind of the error.
+     */
+    void recordError(KingSimException.Kind kind) {
+        errors[kind.ordinal()]++;
+        isFailed = true;
+    }
+
+    /**
+     * Returns a description of the metrics recorded so far, one line per row.
+     *
+     * @param bytesWritten Bytes written to disk by storage so far.
+     * @return Lines describing latencies in microseconds, error counts and bytes written.
+     */
+    List<String> describe(long bytesWritten) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "%-9s %-8s %7s %9s %9s %9s %9s",
+                "command", "phase", "count", "mean us", "p50 us", "p99 us", "max us"));
+        for (int i = 0; i < names.size(); i++) {
+            LatencyHistogram total = totals.get(i);
+            if (total == null) {
+                continue;
+            }
+            lines.add(row(names.get(i), "total", total));
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = phases.get(i)[phase.ordinal()];
+                if (histogram != null) {
+                    lines.add(row("", phase.name().toLowerCase(Locale.ROOT), histogram));
+                }
+            }
+        }
+        if (lines.size() == 1) {
+            lines.add("No commands recorded yet.");
+        }
+
+        StringBuilder errorLine = new StringBuilder("Errors:");
+        for (KingSimException.Kind kind : KingSimException.Kind.values()) {
+            if (errors[kind.ordinal()] > 0) {
+                errorLine.append(errorLine.length() > 7 ? ", " : " ")
+                        .append(kind.name().toLowerCase(Locale.ROOT).replace('_', ' '))
+                        .append(' ').append(errors[kind.ordinal()]);
+            }
+        }
+        lines.add(errorLine.length() > 7 ? errorLine.toString() : "Errors: none");
+        lines.add("Bytes written to disk: " + bytesWritten);
+        return lines;
+    }
+
+    private static String row(String command, String phase, LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "%-9s %-8s %7d %9.1f %9.1f %9.1f %9.1f", command, phase,
+                histogram.getCount(), histogram.getMean() / 1e3, histogram.getPercentile(0.5) / 1e3,
+                histogram.getPercentile(0.99) / 1e3, histogram.getMax() / 1e3);
+    }
+}
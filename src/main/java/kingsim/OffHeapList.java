@@ -0,0 +1,594 @@
+package kingsim;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Represents a list of tasks stored outside the Java heap, as fixed-width records and a
+ * region of descriptions in one {@link ByteBuffer}.
+ *
+ * <p>The buffer starts with a header, followed by one record per task in list order and
+ * then the descriptions in UTF-8, one after another. A record holds the task ID, the due or
+ * start time and the end time as seconds since the epoch, where the description is in the
+ * description region and its length, the task type, and the done and non-ASCII flags.
+ * Deleting a task moves the later records down, as in an array, and leaves its description
+ * in place until at least half the description region is unused, when the descriptions
+ * still in use are moved together.
+ *
+ * <p>The buffer is either direct memory or a file mapped into memory. The header always
+ * holds the number of tasks, how much of each region is used and the smallest ID no task
+ * in the list has ever had, so a mapped file is the list itself and can be mapped again by
+ * {@link #map(Path)} without decoding anything. Version 1 stores, whose shorter header has
+ * no next ID, are still read.
+ * Changes reach the file when the operating system writes them back, or on
+ * {@link #force()}; a crash in between may lose the latest changes or keep only part of one.
+ */
+class OffHeapList extends PackedList {
+    private static final byte[] MAGIC = {'K', 'S', 'I', 'M', 'H', 'E', 'A', 'P'};
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_NEXT_ID = 1;
+    private static final int VERSION_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int CAPACITY_OFFSET = 16;
+    private static final int USED_OFFSET = 20;
+    private static final int DEAD_OFFSET = 24;
+    private static final int NEXT_ID_OFFSET = 32;
+    private static final int HEADER_SIZE = 40;
+    private static final int HEADER_SIZE_WITHOUT_NEXT_ID = 32;
+
+    private static final int ID = 0;
+    private static final int START = 8;
+    private static final int END = 16;
+    private static final int DESC_OFFSET = 24;
+    private static final int DESC_LENGTH = 28;
+    private static final int TYPE = 32;
+    private static final int FLAGS = 33;
+    private static final int RECORD_SIZE = 40;
+    private static final byte DONE = 1;
+    private static final byte NON_ASCII = 2;
+    private static final int MIN_COMPACTED_DESCRIPTIONS = 1 << 16;
+
+    private ByteBuffer buffer;
+    private FileChannel channel;
+    private int headerSize = HEADER_SIZE;
+    private long nextId = 1;
+    private int capacity;
+    private int size;
+    private int used;
+    private int deadBytes;
+    private long bytesWritten;
+
+    /**
+     * Creates a list in direct memory holding the given tasks in order. Tasks without an
+     * ID, or with an ID no larger than the one before, are given new IDs so that the IDs
+     * increase along the list.
+     *
+     * @param tasks Initial tasks.
+     */
+    OffHeapList(Collection<Task> tasks) {
+        int descriptionChars = 0;
+        for (Task task : tasks) {
+            descriptionChars += task.getDescription().length();
+        }
+        capacity = Math.max(16, tasks.size());
+        buffer = allocate(length(capacity, Math.max(256, descriptionChars)));
+        for (int i = 0; i < MAGIC.length; i++) {
+            buffer.put(i, MAGIC[i]);
+        }
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        writeHeader();
+        assignIncreasingIds(tasks);
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    private OffHeapList(ByteBuffer buffer, FileChannel channel) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.channel = channel;
+        int version = buffer.capacity() < HEADER_SIZE_WITHOUT_NEXT_ID ? 0 : buffer.getInt(VERSION_OFFSET);
+        if (version == VERSION_WITHOUT_NEXT_ID) {
+            headerSize = HEADER_SIZE_WITHOUT_NEXT_ID;
+        }
+        if (!isStore(buffer) || buffer.capacity() < headerSize
+                || (version != VERSION && version != VERSION_WITHOUT_NEXT_ID)) {
+            throw new IOException("not a task store of a known version");
+        }
+        size = buffer.getInt(SIZE_OFFSET);
+        capacity = buffer.getInt(CAPACITY_OFFSET);
+        used = buffer.getInt(USED_OFFSET);
+        deadBytes = buffer.getInt(DEAD_OFFSET);
+        if (size < 0 || capacity < size || used < 0 || deadBytes < 0 || deadBytes > used
+                || length(capacity, used) > buffer.capacity()) {
+            throw new IOException("the task store header is damaged");
+        }
+        for (int i = 0; i < size; i++) {
+            int record = recordOffset(i);
+            long end = (long) buffer.getInt(record + DESC_OFFSET) + buffer.getInt(record + DESC_LENGTH);
+            if (buffer.getInt(record + DESC_OFFSET) < 0 || buffer.getInt(record + DESC_LENGTH) < 0
+                    || end > used || buffer.get(record + TYPE) < PLAIN || buffer.get(record + TYPE) > EVENT) {
+                throw new IOException("task " + (i + 1) + " in the task store is damaged");
+            }
+        }
+        if (version == VERSION) {
+            nextId = buffer.getLong(NEXT_ID_OFFSET);
+        }
+        if (size > 0) {
+            nextId = Math.max(nextId, getId(size - 1) + 1);
+        }
+    }
+
+    /**
+     * Returns a list over the task store in the given file, mapped into memory, so that
+     * changes to the list are made to the file.
+     *
+     * @param path Path to the file.
+     * @return List over the file.
+     * @throws IOException If the file cannot be mapped or does not hold a task store.
+     */
+    static OffHeapList map(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("the task store is too large");
+            }
+            return new OffHeapList(channel.map(FileChannel.MapMode.READ_WRITE, 0, length), channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a list over the task store in the given bytes, such as a whole file read into
+     * memory.
+     *
+     * @param data Bytes of the task store, which the list then uses.
+     * @return List over the bytes.
+     * @throws IOException If the bytes do not hold a task store.
+     */
+    static OffHeapList read(ByteBuffer data) throws IOException {
+        return new OffHeapList(data, null);
+    }
+
+    /**
+     * Returns whether the given bytes start like a task store.
+     *
+     * @param data Bytes to check, from index 0.
+     * @return True if the bytes start with the task store's magic number.
+     */
+    static boolean isStore(ByteBuffer data) {
+        if (data.limit() < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data.get(i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the given file starts like a task store.
+     *
+     * @param path Path to the file.
+     * @return True if the file starts with the task store's magic number.
+     * @throws IOException If the file cannot be read.
+     */
+    static boolean isStore(Path path) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer start = ByteBuffer.allocate(MAGIC.length);
+            while (start.hasRemaining() && in.read(start) >= 0) {
+                // Keep reading until the magic number is in or the file ends
+            }
+            return isStore(start.flip());
+        }
+    }
+
+    /**
+     * Returns whether the task store in the given file has room for the next ID in its
+     * header, reading only the header, so that a version 1 store can be upgraded before
+     * it is mapped.
+     *
+     * @param path Path to a file holding a task store.
+     * @return True if the store is of the current version.
+     * @throws IOException If the file cannot be read.
+     */
+    static boolean hasNextId(Path path) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer start = ByteBuffer.allocate(VERSION_OFFSET + 4).order(ByteOrder.LITTLE_ENDIAN);
+            while (start.hasRemaining() && in.read(start) >= 0) {
+                // Keep reading until the version is in or the file ends
+            }
+            return !start.hasRemaining() && start.getInt(VERSION_OFFSET) == VERSION;
+        }
+    }
+
+    /**
+     * Replaces the tasks of this list with those of the given list by copying its buffer
+     * into this one, which grows if it is too small. A mapped file is rewritten in place and
+     * stays mapped, since some systems, such as Windows, refuse to replace a file that is
+     * still mapped. A crash during the copy may leave the file damaged.
+     *
+     * @param other List whose tasks to copy.
+     */
+    void copyFrom(OffHeapList other) {
+        int length = other.buffer.capacity();
+        if (buffer.capacity() < length) {
+            buffer = allocate(length);
+        }
+        buffer.put(0, other.buffer, 0, length);
+        headerSize = other.headerSize;
+        nextId = other.nextId;
+        capacity = other.capacity;
+        size = other.size;
+        used = other.used;
+        deadBytes = other.deadBytes;
+        modCount++;
+        bytesWritten += length;
+    }
+
+    /**
+     * Copies this list into a new file at the given path, mapped into memory, and makes
+     * later changes to the list in that file.
+     *
+     * @param path Path to the file, which is replaced if it exists.
+     * @throws IOException If the file cannot be written or mapped.
+     */
+    void mapTo(Path path) throws IOException {
+        FileChannel newChannel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer mapped;
+        try {
+            mapped = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, buffer.capacity());
+        } catch (IOException e) {
+            newChannel.close();
+            throw e;
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN).put(0, buffer, 0, buffer.capacity());
+        close();
+        buffer = mapped;
+        channel = newChannel;
+        bytesWritten = buffer.capacity();
+    }
+
+    /**
+     * Returns whether this list is kept in a file mapped into memory.
+     *
+     * @return True if the list is in a file.
+     */
+    boolean isMapped() {
+        return channel != null;
+    }
+
+    /**
+     * Forces the changes made to a mapped list onto the storage device.
+     */
+    void force() {
+        if (channel != null) {
+            ((MappedByteBuffer) buffer).force();
+        }
+    }
+
+    /**
+     * Closes the file of a mapped list. The list can still be read and changed in place,
+     * but no longer grow.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns whether the header of this list has room for the next ID, which is not so for a
+     * version 1 store.
+     *
+     * @return True if the next ID is kept with the list.
+     */
+    boolean hasNextId() {
+        return headerSize == HEADER_SIZE;
+    }
+
+    /**
+     * Returns the smallest ID that no task in this list has ever had.
+     *
+     * @return Next ID to give out.
+     */
+    long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Makes sure the next ID is at least the given one, so that IDs below it, which tasks
+     * deleted elsewhere may have had, are not given out again.
+     *
+     * @param id Smallest ID that may be given out.
+     */
+    void reserveIdsBelow(long id) {
+        if (id > nextId) {
+            nextId = id;
+            writeHeader();
+        }
+    }
+
+    /**
+     * Returns the number of bytes written into the buffer since it was last copied into a
+     * file by {@link #mapTo(Path)}, or since the list was created, counting each record and
+     * description stored, each flag changed and each byte moved.
+     *
+     * @return Total bytes written.
+     */
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public long getId(int index) {
+        checkIndex(index);
+        return buffer.getLong(recordOffset(index) + ID);
+    }
+
+    @Override
+    void setDone(int index, boolean isDone) {
+        checkIndex(index);
+        int flags = recordOffset(index) + FLAGS;
+        buffer.put(flags, (byte) (isDone ? buffer.get(flags) | DONE : buffer.get(flags) & ~DONE));
+        bytesWritten++;
+    }
+
+    @Override
+    byte typeAt(int index) {
+        return buffer.get(recordOffset(index) + TYPE);
+    }
+
+    @Override
+    long startAt(int index) {
+        return buffer.getLong(recordOffset(index) + START);
+    }
+
+    @Override
+    long endAt(int index) {
+        return buffer.getLong(recordOffset(index) + END);
+    }
+
+    @Override
+    boolean isDoneAt(int index) {
+        return (buffer.get(recordOffset(index) + FLAGS) & DONE) != 0;
+    }
+
+    @Override
+    boolean isAsciiAt(int index) {
+        return (buffer.get(recordOffset(index) + FLAGS) & NON_ASCII) == 0;
+    }
+
+    @Override
+    String descriptionAt(int index) {
+        int record = recordOffset(index);
+        byte[] description = new byte[buffer.getInt(record + DESC_LENGTH)];
+        buffer.get(descriptionsStart() + buffer.getInt(record + DESC_OFFSET), description);
+        return new String(description, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task old = get(index);
+        deadBytes += buffer.getInt(recordOffset(index) + DESC_LENGTH);
+        store(index, task);
+        writeHeader();
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (size == capacity) {
+            resize(capacity + (capacity >> 1), descriptionCapacity());
+        }
+        int at = recordOffset(index);
+        moveRecords(at, at + RECORD_SIZE, recordOffset(size) - at);
+        size++;
+        store(index, task);
+        modCount++;
+        writeHeader();
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        deadBytes += buffer.getInt(recordOffset(index) + DESC_LENGTH);
+        int at = recordOffset(index);
+        moveRecords(at + RECORD_SIZE, at, recordOffset(size) - at - RECORD_SIZE);
+        size--;
+        modCount++;
+        if (deadBytes > MIN_COMPACTED_DESCRIPTIONS && deadBytes > used / 2) {
+            compactDescriptions();
+        }
+        writeHeader();
+        return removed;
+    }
+
+    @Override
+    public void removeAll(int[] indexes) {
+        for (int index : indexes) {
+            deadBytes += buffer.getInt(recordOffset(index) + DESC_LENGTH);
+        }
+        size = CompactingList.compact(indexes, size,
+                (from, to, count) -> moveRecords(recordOffset(from), recordOffset(to), count * RECORD_SIZE));
+        modCount++;
+        if (deadBytes > MIN_COMPACTED_DESCRIPTIONS && deadBytes > used / 2) {
+            compactDescriptions();
+        }
+        writeHeader();
+    }
+
+    private void store(int index, Task task) {
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        if (used + description.length > descriptionCapacity()) {
+            resize(capacity, Math.max(used + description.length, descriptionCapacity() * 2));
+        }
+        buffer.put(descriptionsStart() + used, description);
+
+        int record = recordOffset(index);
+        buffer.putLong(record + ID, task.getId());
+        nextId = Math.max(nextId, task.getId() + 1);
+        buffer.putLong(record + START, startOf(task));
+        buffer.putLong(record + END, endOf(task));
+        buffer.putInt(record + DESC_OFFSET, used);
+        buffer.putInt(record + DESC_LENGTH, description.length);
+        buffer.put(record + TYPE, typeOf(task));
+        boolean isNonAscii = description.length != task.getDescription().length();
+        buffer.put(record + FLAGS, (byte) ((task.isDone() ? DONE : 0) | (isNonAscii ? NON_ASCII : 0)));
+        used += description.length;
+        bytesWritten += RECORD_SIZE + description.length;
+    }
+
+    private void moveRecords(int from, int to, int length) {
+        buffer.put(to, buffer, from, length);
+        bytesWritten += length;
+    }
+
+    /**
+     * Moves the descriptions still in use to the start of the description region, in the
+     * order they are stored so that none is overwritten before it is moved.
+     */
+    private void compactDescriptions() {
+        long[] byOffset = new long[size];
+        for (int i = 0; i < size; i++) {
+            byOffset[i] = (long) buffer.getInt(recordOffset(i) + DESC_OFFSET) << 32 | i;
+        }
+        Arrays.sort(byOffset);
+        int start = descriptionsStart();
+        int compacted = 0;
+        for (long entry : byOffset) {
+            int record = recordOffset((int) entry);
+            int length = buffer.getInt(record + DESC_LENGTH);
+            buffer.put(start + compacted, buffer, start + (int) (entry >>> 32), length);
+            buffer.putInt(record + DESC_OFFSET, compacted);
+            compacted += length;
+        }
+        bytesWritten += compacted;
+        used = compacted;
+        deadBytes = 0;
+    }
+
+    /**
+     * Moves the buffer to one with room for the given number of records and description
+     * bytes. A mapped file is extended and mapped again, with the descriptions moved up
+     * after the records.
+     */
+    private void resize(int newCapacity, int newDescriptionCapacity) {
+        int oldStart = descriptionsStart();
+        int newStart = headerSize + newCapacity * RECORD_SIZE;
+        ByteBuffer old = buffer;
+        buffer = allocate(length(newCapacity, newDescriptionCapacity));
+        if (channel == null) {
+            buffer.put(0, old, 0, recordOffset(size));
+            buffer.put(newStart, old, oldStart, used);
+            bytesWritten += recordOffset(size) + used;
+        } else if (newStart != oldStart) {
+            buffer.put(newStart, buffer, oldStart, used);
+            bytesWritten += used;
+        }
+        capacity = newCapacity;
+        writeHeader();
+    }
+
+    private ByteBuffer allocate(long length) {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The task list cannot grow past 2 GiB.");
+        }
+        if (channel == null) {
+            return ByteBuffer.allocateDirect((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeHeader() {
+        buffer.putInt(SIZE_OFFSET, size);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(USED_OFFSET, used);
+        buffer.putInt(DEAD_OFFSET, deadBytes);
+        if (headerSize == HEADER_SIZE) {
+            buffer.putLong(NEXT_ID_OFFSET, nextId);
+        }
+    }
+
+    private long length(int capacity, int descriptionCapacity) {
+        return headerSize + (long) capacity * RECORD_SIZE + descriptionCapacity;
+    }
+
+    private int recordOffset(int index) {
+        return headerSize + index * RECORD_SIZE;
+    }
+
+    private int descriptionsStart() {
+        return headerSize + capacity * RECORD_SIZE;
+    }
+
+    private int descriptionCapacity() {
+        return buffer.capacity() - descriptionsStart();
+    }
+
+    @Override
+    boolean containsIgnoringCase(int index, byte[] keyword) {
+        int record = recordOffset(index);
+        int offset = descriptionsStart() + buffer.getInt(record + DESC_OFFSET);
+        int last = offset + buffer.getInt(record + DESC_LENGTH) - keyword.length;
+        long pattern = firstBytePattern(keyword);
+        int start = offset;
+        while (start + Long.BYTES <= buffer.capacity() && start <= last) {
+            long candidates = firstByteCandidates(buffer.getLong(start), pattern);
+            while (candidates != 0) {
+                int candidate = start + Long.numberOfTrailingZeros(candidates) / 8;
+                if (candidate > last) {
+                    return false;
+                }
+                if (matchesAt(candidate, keyword)) {
+                    return true;
+                }
+                candidates &= candidates - 1;
+            }
+            start += Long.BYTES;
+        }
+        for (; start <= last; start++) {
+            if (matchesAt(start, keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesAt(int start, byte[] keyword) {
+        for (int k = 0; k < keyword.length; k++) {
+            if (toLowerCase(buffer.get(start + k)) != keyword[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,263 @@
+package kingsim;
+
+/**
+ * Represents the startup options given to KingSIM on the command line.
+ */
+public class Options {
+    private static final long DEFAULT_GROUP_COMMIT_MILLIS = 50;
+    private static final long DEFAULT_CACHE_SIZE = 100_000;
+
+    private boolean isJournaling;
+    private Durability durability = Durability.IMMEDIATE;
+    private long groupCommitMillis = DEFAULT_GROUP_COMMIT_MILLIS;
+    private FileFormat format;
+    private IndexType indexType = IndexType.NONE;
+    private ListBacking backing = ListBacking.ARRAY;
+    private String batchFile;
+    private long saveEvery;
+    private int serverPort = -1;
+    private long cacheSize = DEFAULT_CACHE_SIZE;
+    private boolean isJfrEnabled;
+
+    /**
+     * Returns the options given by the command line arguments.
+     *
+     * @param args Command line arguments.
+     * @return Parsed options.
+     * @throws KingSimException If an argument is not recognised or has an invalid value.
+     */
+    public static Options parse(String[] args) throws KingSimException {
+        Options options = new Options();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+            case "--journal":
+                options.isJournaling = true;
+                break;
+            case "--durability":
+                options.durability = parseDurability(valueAfter(args, i++));
+                break;
+            case "--group-ms":
+                options.groupCommitMillis = parseCount(args[i], valueAfter(args, i++));
+                break;
+            case "--format":
+                options.format = parseFormat(valueAfter(args, i++));
+                break;
+            case "--index":
+                options.indexType = parseIndexType(valueAfter(args, i++));
+                break;
+            case "--backing":
+                options.backing = parseBacking(valueAfter(args, i++));
+                break;
+            case "--batch":
+                options.batchFile = valueAfter(args, i++);
+                break;
+            case "--serve":
+                options.serverPort = parsePort(valueAfter(args, i++));
+                break;
+            case "--save-every":
+                options.saveEvery = parseCount(args[i], valueAfter(args, i++));
+                break;
+            case "--cache-size":
+                options.cacheSize = parseCount(args[i], valueAfter(args, i++));
+                break;
+            case "--jfr":
+                options.isJfrEnabled = true;
+                break;
+            default:
+                throw KingSimException.unknownOption(args[i]);
+            }
+        }
+        return options;
+    }
+
+    private static String valueAfter(String[] args, int i) throws KingSimException {
+        if (i + 1 >= args.length) {
+            throw KingSimException.missingOptionValue(args[i]);
+        }
+        return args[i + 1];
+    }
+
+    private static Durability parseDurability(String value) throws KingSimException {
+        switch (value.toLowerCase()) {
+        case "immediate":
+            return Durability.IMMEDIATE;
+        case "fsync":
+            return Durability.FSYNC;
+        case "group":
+            return Durability.GROUP;
+        case "exit":
+            return Durability.ON_EXIT;
+        default:
+            throw KingSimException.invalidOptionValue("--durability", value);
+        }
+    }
+
+    private static FileFormat parseFormat(String value) throws KingSimException {
+        switch (value.toLowerCase()) {
+        case "text":
+            return FileFormat.TEXT;
+        case "binary":
+            return FileFormat.BINARY;
+        default:
+            throw KingSimException.invalidOptionValue("--format", value);
+        }
+    }
+
+    private static IndexType parseIndexType(String value) throws KingSimException {
+        switch (value.toLowerCase()) {
+        case "none":
+            return IndexType.NONE;
+        case "word":
+            return IndexType.WORD;
+        case "trigram":
+            return IndexType.TRIGRAM;
+        default:
+            throw KingSimException.invalidOptionValue("--index", value);
+        }
+    }
+
+    private static ListBacking parseBacking(String value) throws KingSimException {
+        switch (value.toLowerCase()) {
+        case "array":
+            return ListBacking.ARRAY;
+        case "tree":
+            return ListBacking.TREE;
+        case "snapshot":
+            return ListBacking.SNAPSHOT;
+        case "lazy":
+            return ListBacking.LAZY;
+        case "columnar":
+            return ListBacking.COLUMNAR;
+        case "offheap":
+            return ListBacking.OFF_HEAP;
+        case "mapped":
+            return ListBacking.MAPPED;
+        default:
+            throw KingSimException.invalidOptionValue("--backing", value);
+        }
+    }
+
+    private static int parsePort(String value) throws KingSimException {
+        try {
+            int port = Integer.parseInt(value);
+            if (port < 0 || port > 65535) {
+                throw KingSimException.invalidOptionValue("--serve", value);
+            }
+            return port;
+        } catch (NumberFormatException e) {
+            throw KingSimException.invalidOptionValue("--serve", value);
+        }
+    }
+
+    private static long parseCount(String option, String value) throws KingSimException {
+        try {
+            long count = Long.parseLong(value);
+            if (count < 0) {
+                throw KingSimException.invalidOptionValue(option, value);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw KingSimException.invalidOptionValue(option, value);
+        }
+    }
+
+    /**
+     * Returns whether changes are journaled instead of rewriting the data file.
+     *
+     * @return True if journaling is on.
+     */
+    public boolean isJournaling() {
+        return isJournaling;
+    }
+
+    /**
+     * Returns how strongly each change is persisted.
+     *
+     * @return Durability level.
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Returns how long changes gather before a group commit.
+     *
+     * @return Group commit interval in milliseconds.
+     */
+    public long getGroupCommitMillis() {
+        return groupCommitMillis;
+    }
+
+    /**
+     * Returns the format the data file should be written in.
+     *
+     * @return Requested format, or null to keep the format the data file already uses.
+     */
+    public FileFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the kind of search index to keep for {@code find}.
+     *
+     * @return Search index kind.
+     */
+    public IndexType getIndexType() {
+        return indexType;
+    }
+
+    /**
+     * Returns the data structure the task list is kept in.
+     *
+     * @return List backing.
+     */
+    public ListBacking getBacking() {
+        return backing;
+    }
+
+    /**
+     * Returns the file of commands to run in batch mode.
+     *
+     * @return Path to the file, {@code -} for standard input, or null for interactive mode.
+     */
+    public String getBatchFile() {
+        return batchFile;
+    }
+
+    /**
+     * Returns how many commands batch mode runs between saves.
+     *
+     * @return Number of commands, or 0 to save only when the batch ends.
+     */
+    public long getSaveEvery() {
+        return saveEvery;
+    }
+
+    /**
+     * Returns the port to serve sessions on in server mode.
+     *
+     * @return TCP port, 0 for any free port, or -1 to run a single console session.
+     */
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    /**
+     * Returns how many tasks may be kept in memory across the open task lists, counting
+     * each list as one more task, before the least recently used lists are closed.
+     *
+     * @return Most total weight of the open task lists.
+     */
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Returns whether each command is also reported as an event to JDK Flight Recorder.
+     *
+     * @return True if JFR events are turned on.
+     */
+    public boolean isJfrEnabled() {
+        return isJfrEnabled;
+    }
+}
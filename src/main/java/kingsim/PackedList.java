@@ -0,0 +1,274 @@
+package kingsim;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.RandomAccess;
+
+/**
+ * Represents a list that stores the fields of its tasks instead of task objects, such as
+ * {@link ColumnarList} and {@link OffHeapList}.
+ *
+ * <p>Each task is stored as its type, ID, done flag, due or start time and end time as
+ * seconds since the epoch, and its description in UTF-8. Getting a task creates a new task
+ * object from these fields each time, so changing that object does not change the list;
+ * {@link #setDone(int, boolean)} does. {@code find} and the time queries read the stored
+ * fields directly, creating task objects only for the matches. Times are kept to the second.
+ */
+abstract class PackedList extends AbstractList<Task> implements RandomAccess, IdList, CompactingList {
+    static final byte PLAIN = 0;
+    static final byte TODO = 1;
+    static final byte DEADLINE = 2;
+    static final byte EVENT = 3;
+    static final long ONES = 0x0101010101010101L;
+    /** Whether lower-casing an ASCII letter always gives the ASCII lower-case letter here. */
+    private static final boolean HAS_ASCII_LOWER_CASE =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZ".toLowerCase().equals("abcdefghijklmnopqrstuvwxyz");
+
+    /**
+     * Returns the type of the task at the given position, one of {@link #PLAIN},
+     * {@link #TODO}, {@link #DEADLINE} and {@link #EVENT}.
+     */
+    abstract byte typeAt(int index);
+
+    /**
+     * Returns the due time of the deadline or the start time of the event at the given
+     * position, in seconds since the epoch.
+     */
+    abstract long startAt(int index);
+
+    /**
+     * Returns the end time of the event at the given position, in seconds since the epoch.
+     */
+    abstract long endAt(int index);
+
+    abstract boolean isDoneAt(int index);
+
+    /**
+     * Returns whether the description of the task at the given position is plain ASCII.
+     */
+    abstract boolean isAsciiAt(int index);
+
+    abstract String descriptionAt(int index);
+
+    /**
+     * Returns whether the ASCII description of the task at the given position contains the
+     * lower-case ASCII keyword, ignoring the case of the description.
+     */
+    abstract boolean containsIgnoringCase(int index, byte[] keyword);
+
+    /**
+     * Marks the task at the given position as done or not done.
+     *
+     * @param index Index of the task.
+     * @param isDone True to mark the task as done, false to mark it as not done.
+     */
+    abstract void setDone(int index, boolean isDone);
+
+    @Override
+    public boolean hasIncreasingIds() {
+        long previous = 0;
+        for (int i = 0; i < size(); i++) {
+            long id = getId(i);
+            if (id <= previous) {
+                return false;
+            }
+            previous = id;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the tasks whose lower-case descriptions contain the keyword, in list order.
+     * Descriptions that are plain ASCII are compared byte by byte where they are stored;
+     * others are decoded and lower-cased as usual.
+     *
+     * @param lowerKeyword Lower-case keyword to search for.
+     * @return Matching tasks.
+     */
+    ArrayList<Task> find(String lowerKeyword) {
+        byte[] keyword = lowerKeyword.getBytes(StandardCharsets.UTF_8);
+        boolean isAsciiKeyword = HAS_ASCII_LOWER_CASE && keyword.length == lowerKeyword.length();
+        ArrayList<Task> matches = new ArrayList<>();
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            boolean isMatch;
+            if (isAsciiKeyword && isAsciiAt(i)) {
+                isMatch = keyword.length == 0 || containsIgnoringCase(i, keyword);
+            } else {
+                isMatch = descriptionAt(i).toLowerCase().contains(lowerKeyword);
+            }
+            if (isMatch) {
+                matches.add(get(i));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the deadlines due strictly before the given time, earliest first.
+     *
+     * @param time Time the deadlines must be due before.
+     * @return Matching deadlines.
+     */
+    ArrayList<Task> findDueBefore(LocalDateTime time) {
+        long seconds = TimeIndex.toSeconds(time);
+        ArrayList<Integer> due = new ArrayList<>();
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            if (typeAt(i) == DEADLINE && startAt(i) < seconds) {
+                due.add(i);
+            }
+        }
+        due.sort(Comparator.comparingLong(this::startAt));
+        ArrayList<Task> matches = new ArrayList<>(due.size());
+        for (int i : due) {
+            matches.add(get(i));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the deadlines due within the given range and the events overlapping it,
+     * ordered by due or start time, with deadlines before events starting at the same time.
+     *
+     * @param from Start of the range, inclusive.
+     * @param to End of the range, inclusive.
+     * @return Matching deadlines and events.
+     */
+    ArrayList<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+        long fromSeconds = TimeIndex.toSeconds(from);
+        long toSeconds = TimeIndex.toSeconds(to);
+        ArrayList<Integer> dueInRange = new ArrayList<>();
+        ArrayList<Integer> overlapping = new ArrayList<>();
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            byte type = typeAt(i);
+            if (type == DEADLINE && startAt(i) >= fromSeconds && startAt(i) <= toSeconds) {
+                dueInRange.add(i);
+            } else if (type == EVENT && startAt(i) <= toSeconds && endAt(i) >= fromSeconds) {
+                overlapping.add(i);
+            }
+        }
+        dueInRange.sort(Comparator.comparingLong(this::startAt));
+        overlapping.sort(Comparator.comparingLong(this::startAt));
+
+        ArrayList<Task> matches = new ArrayList<>(dueInRange.size() + overlapping.size());
+        int i = 0;
+        int j = 0;
+        while (i < dueInRange.size() || j < overlapping.size()) {
+            boolean takeDeadline = j == overlapping.size() || (i < dueInRange.size()
+                    && startAt(dueInRange.get(i)) <= startAt(overlapping.get(j)));
+            matches.add(get(takeDeadline ? dueInRange.get(i++) : overlapping.get(j++)));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns a new task object holding the task at the given position. Its sequence
+     * number is its ID.
+     *
+     * @param index Index of the task.
+     * @return Task at the given position.
+     */
+    @Override
+    public Task get(int index) {
+        checkIndex(index);
+        String description = descriptionAt(index);
+        Task task;
+        switch (typeAt(index)) {
+        case TODO:
+            task = new Todo(description);
+            break;
+        case DEADLINE:
+            task = new Deadline(description, toDateTime(startAt(index)));
+            break;
+        case EVENT:
+            task = new Event(description, toDateTime(startAt(index)), toDateTime(endAt(index)));
+            break;
+        default:
+            task = new Task(description);
+            break;
+        }
+        if (isDoneAt(index)) {
+            task.markDone();
+        }
+        long id = getId(index);
+        task.setId(id);
+        task.setSequence(id);
+        return task;
+    }
+
+    /**
+     * Gives new IDs to the tasks without an ID or with an ID no larger than the one before,
+     * so that the IDs increase along the list.
+     */
+    static void assignIncreasingIds(Collection<Task> tasks) {
+        long nextId = 1;
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        long previous = 0;
+        for (Task task : tasks) {
+            if (task.getId() <= previous) {
+                task.setId(nextId++);
+            }
+            previous = task.getId();
+        }
+    }
+
+    static byte typeOf(Task task) {
+        if (task instanceof Deadline) {
+            return DEADLINE;
+        } else if (task instanceof Event) {
+            return EVENT;
+        }
+        return task instanceof Todo ? TODO : PLAIN;
+    }
+
+    static long startOf(Task task) {
+        if (task instanceof Deadline) {
+            return TimeIndex.toSeconds(((Deadline) task).getBy());
+        } else if (task instanceof Event) {
+            return TimeIndex.toSeconds(((Event) task).getFrom());
+        }
+        return 0;
+    }
+
+    static long endOf(Task task) {
+        return task instanceof Event ? TimeIndex.toSeconds(((Event) task).getTo()) : 0;
+    }
+
+    /**
+     * Returns a word with the high bit set in each byte that may be the first byte of the
+     * keyword, given the eight bytes of a description as a little-endian word and the first
+     * keyword byte repeated in every byte. Setting bit 5 lower-cases a letter; any other byte
+     * that passes is checked in full.
+     */
+    static long firstByteCandidates(long word, long pattern) {
+        long x = (word | (ONES << 5)) ^ pattern;
+        return (x - ONES) & ~x & (ONES << 7);
+    }
+
+    static long firstBytePattern(byte[] keyword) {
+        return ((keyword[0] | 0x20) & 0xFFL) * ONES;
+    }
+
+    static byte toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static LocalDateTime toDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+
+    void checkIndex(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package kingsim;
+
+/**
+ * Represents the outcome of parsing user input: either the parsed value or the error
+ * to show the user. Invalid input is reported without throwing, so scripts with many
+ * bad lines do not pay for exceptions.
+ *
+ * @param <T> Type of the parsed value.
+ */
+public class ParseResult<T> {
+    private final T value;
+    private final KingSimException error;
+
+    private ParseResult(T value, KingSimException error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Returns a successful result holding the given value.
+     *
+     * @param value Parsed value.
+     * @param <T> Type of the parsed value.
+     * @return Successful result.
+     */
+    public static <T> ParseResult<T> ok(T value) {
+        return new ParseResult<>(value, null);
+    }
+
+    /**
+     * Returns a failed result holding the given error.
+     *
+     * @param error Error to show the user.
+     * @param <T> Type the parsed value would have had.
+     * @return Failed result.
+     */
+    public static <T> ParseResult<T> error(KingSimException error) {
+        return new ParseResult<>(null, error);
+    }
+
+    /**
+     * Returns whether parsing succeeded.
+     *
+     * @return True if the result holds a value, false if it holds an error.
+     */
+    public boolean isOk() {
+        return error == null;
+    }
+
+    /**
+     * Returns the parsed value.
+     *
+     * @return Parsed value, or null if parsing failed.
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the error to show the user.
+     *
+     * @return Error, or null if parsing succeeded.
+     */
+    public KingSimException getError() {
+        return error;
+    }
+
+    /**
+     * Returns the parsed value, or throws the error if parsing failed.
+     *
+     * @return Parsed value.
+     * @throws KingSimException If parsing failed.
+     */
+    public T orThrow() throws KingSimException {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+}
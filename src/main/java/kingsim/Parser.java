@@ -1,105 +1,130 @@
 package kingsim;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
 /**
  * Parses user input into tasks or command details.
  */
 public class Parser {
-    private static final DateTimeFormatter INPUT_FORMAT =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HHmm");
+    /** Number of tasks shown by {@code list page N}. */
+    static final int LIST_PAGE_SIZE = 20;
 
     /**
      * Parses user input and returns the corresponding task.
      *
      * @param input User input entered in the console.
-     * @return Task created from the input.
-     * @throws KingSimException If the input format is invalid.
+     * @return Task created from the input, or the error if the input format is invalid.
      */
-    public static Task parseTask(String input) throws KingSimException {
-        String lower = input.toLowerCase();
-
-        if (lower.equals("todo") || lower.startsWith("todo ")) {
-            String desc = input.length() > 4 ? input.substring(4).trim() : "";
-            if (desc.isEmpty()) {
-                throw KingSimException.emptyTodo();
-            }
-            return new Todo(desc);
+    public static ParseResult<Task> parseTask(String input) {
+        int length = CommandRegistry.wordLength(input);
+        if (isWord(input, length, "todo")) {
+            return parseTodo(input);
+        } else if (isWord(input, length, "deadline")) {
+            return parseDeadline(input);
+        } else if (isWord(input, length, "event")) {
+            return parseEvent(input);
         }
+        return ParseResult.error(KingSimException.unknownCommand());
+    }
 
-        if (lower.equals("deadline") || lower.startsWith("deadline ")) {
-            String rest = input.length() > 8 ? input.substring(8).trim() : "";
-            if (rest.isEmpty()) {
-                throw KingSimException.incompleteDeadline();
-            }
+    private static boolean isWord(String input, int length, String word) {
+        return length == word.length() && input.regionMatches(true, 0, word, 0, length);
+    }
 
-            String[] parts = rest.split(" /by ", 2);
-            if (parts.length < 2) {
-                throw KingSimException.missingBy();
-            }
+    /**
+     * Parses a todo command such as {@code todo read book}.
+     *
+     * @param input Full user input, starting with the todo command word.
+     * @return Todo created from the input, or the error if the description is missing.
+     */
+    public static ParseResult<Task> parseTodo(String input) {
+        String desc = input.length() > 4 ? input.substring(4).trim() : "";
+        if (desc.isEmpty()) {
+            return ParseResult.error(KingSimException.emptyTodo());
+        }
+        return ParseResult.ok(new Todo(desc));
+    }
 
-            String desc = parts[0].trim();
-            String byText = parts[1].trim();
+    /**
+     * Parses a deadline command such as {@code deadline return book /by 2026-03-10 1800}.
+     *
+     * @param input Full user input, starting with the deadline command word.
+     * @return Deadline created from the input, or the error if the input format is invalid.
+     */
+    public static ParseResult<Task> parseDeadline(String input) {
+        String rest = input.length() > 8 ? input.substring(8).trim() : "";
+        if (rest.isEmpty()) {
+            return ParseResult.error(KingSimException.incompleteDeadline());
+        }
 
-            if (desc.isEmpty()) {
-                throw KingSimException.emptyDeadlineDescription();
-            }
-            if (byText.isEmpty()) {
-                throw KingSimException.emptyDeadlineDate();
-            }
+        int byPos = rest.indexOf(" /by ");
+        if (byPos == -1) {
+            return ParseResult.error(KingSimException.missingBy());
+        }
 
-            try {
-                LocalDateTime by = LocalDateTime.parse(byText, INPUT_FORMAT);
-                return new Deadline(desc, by);
-            } catch (DateTimeParseException e) {
-                throw KingSimException.invalidDateTime("2026-03-10 1800");
-            }
+        String desc = rest.substring(0, byPos).trim();
+        String byText = rest.substring(byPos + 5).trim();
+
+        if (desc.isEmpty()) {
+            return ParseResult.error(KingSimException.emptyDeadlineDescription());
+        }
+        if (byText.isEmpty()) {
+            return ParseResult.error(KingSimException.emptyDeadlineDate());
         }
 
-        if (lower.equals("event") || lower.startsWith("event ")) {
-            String rest = input.length() > 5 ? input.substring(5).trim() : "";
-            if (rest.isEmpty()) {
-                throw KingSimException.incompleteEvent();
-            }
+        LocalDateTime by = DateTimeParser.parseInput(byText);
+        if (by == null) {
+            return ParseResult.error(KingSimException.invalidDateTime("2026-03-10 1800"));
+        }
+        return ParseResult.ok(new Deadline(desc, by));
+    }
 
-            int fromPos = rest.indexOf(" /from ");
-            int toPos = rest.indexOf(" /to ");
+    /**
+     * Parses an event command such as
+     * {@code event meeting /from 2026-03-10 1400 /to 2026-03-10 1600}.
+     *
+     * @param input Full user input, starting with the event command word.
+     * @return Event created from the input, or the error if the input format is invalid.
+     */
+    public static ParseResult<Task> parseEvent(String input) {
+        String rest = input.length() > 5 ? input.substring(5).trim() : "";
+        if (rest.isEmpty()) {
+            return ParseResult.error(KingSimException.incompleteEvent());
+        }
 
-            if (fromPos == -1 || toPos == -1 || toPos < fromPos + 7) {
-                throw KingSimException.invalidEventFormat();
-            }
+        int fromPos = rest.indexOf(" /from ");
+        int toPos = rest.indexOf(" /to ");
 
-            String desc = rest.substring(0, fromPos).trim();
-            String fromText = rest.substring(fromPos + 7, toPos).trim();
-            String toText = rest.substring(toPos + 5).trim();
+        if (fromPos == -1 || toPos == -1 || toPos < fromPos + 7) {
+            return ParseResult.error(KingSimException.invalidEventFormat());
+        }
 
-            if (desc.isEmpty()) {
-                throw KingSimException.emptyEventName();
-            }
-            if (fromText.isEmpty()) {
-                throw KingSimException.emptyEventStart();
-            }
-            if (toText.isEmpty()) {
-                throw KingSimException.emptyEventEnd();
-            }
+        String desc = rest.substring(0, fromPos).trim();
+        String fromText = rest.substring(fromPos + 7, toPos).trim();
+        String toText = rest.substring(toPos + 5).trim();
 
-            try {
-                LocalDateTime from = LocalDateTime.parse(fromText, INPUT_FORMAT);
-                LocalDateTime to = LocalDateTime.parse(toText, INPUT_FORMAT);
+        if (desc.isEmpty()) {
+            return ParseResult.error(KingSimException.emptyEventName());
+        }
+        if (fromText.isEmpty()) {
+            return ParseResult.error(KingSimException.emptyEventStart());
+        }
+        if (toText.isEmpty()) {
+            return ParseResult.error(KingSimException.emptyEventEnd());
+        }
 
-                if (to.isBefore(from)) {
-                    throw KingSimException.invalidEventRange();
-                }
+        LocalDateTime from = DateTimeParser.parseInput(fromText);
+        LocalDateTime to = DateTimeParser.parseInput(toText);
+        if (from == null || to == null) {
+            return ParseResult.error(KingSimException.invalidDateTime("2026-03-10 1400"));
+        }
 
-                return new Event(desc, from, to);
-            } catch (DateTimeParseException e) {
-                throw KingSimException.invalidDateTime("2026-03-10 1400");
-            }
+        if (to.isBefore(from)) {
+            return ParseResult.error(KingSimException.invalidEventRange());
         }
 
-        throw KingSimException.unknownCommand();
+        return ParseResult.ok(new Event(desc, from, to));
     }
 
     /**
@@ -107,20 +132,212 @@ public class Parser {
      *
      * @param input Full user input.
      * @param command Command name at the start of the input.
-     * @return Zero-based task index.
-     * @throws KingSimException If the index is missing or invalid.
+     * @return Zero-based task index, or the error if the index is missing or invalid.
      */
-    public static int parseTaskIndex(String input, String command) throws KingSimException {
+    public static ParseResult<Integer> parseTaskIndex(String input, String command) {
         String numberPart = input.substring(command.length()).trim();
 
         if (numberPart.isEmpty()) {
-            throw KingSimException.missingNumber(command);
+            return ParseResult.error(KingSimException.missingNumber(command));
         }
 
+        long number = parseNumber(numberPart);
+        if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            return ParseResult.error(KingSimException.invalidNumber(command));
+        }
+        return ParseResult.ok((int) number - 1);
+    }
+
+    /**
+     * Parses the part of the list asked for by {@code list FROM-TO} or {@code list page N}.
+     *
+     * @param text Text after the list command.
+     * @return Zero-based index of the first task and the index just after the last task.
+     * @throws KingSimException If the text is not a range or page, such as a page or start below 1,
+     *     or the range is empty or too large.
+     */
+    public static int[] parseListRange(String text) throws KingSimException {
+        String lower = text.toLowerCase();
         try {
-            return Integer.parseInt(numberPart) - 1;
+            if (lower.startsWith("page ")) {
+                int page = Integer.parseInt(lower.substring(5).trim());
+                if (page < 1) {
+                    throw KingSimException.invalidListFormat();
+                }
+                if (page > Integer.MAX_VALUE / LIST_PAGE_SIZE) {
+                    throw KingSimException.invalidListRange();
+                }
+                return new int[] {(page - 1) * LIST_PAGE_SIZE, page * LIST_PAGE_SIZE};
+            }
+
+            int dash = lower.indexOf('-');
+            if (dash == -1) {
+                throw KingSimException.invalidListFormat();
+            }
+            int from = Integer.parseInt(lower.substring(0, dash).trim());
+            int to = Integer.parseInt(lower.substring(dash + 1).trim());
+            if (from < 1) {
+                throw KingSimException.invalidListFormat();
+            }
+            if (to < from) {
+                throw KingSimException.invalidListRange();
+            }
+            return new int[] {from - 1, to};
         } catch (NumberFormatException e) {
-            throw KingSimException.invalidNumber(command);
+            throw KingSimException.invalidListFormat();
+        }
+    }
+
+    /**
+     * Returns whether a command such as mark, unmark, or delete refers to its task by ID,
+     * as in {@code mark #12}, instead of by position.
+     *
+     * @param input Full user input.
+     * @param command Command name at the start of the input.
+     * @return True if the argument starts with {@code #}.
+     */
+    public static boolean hasTaskId(String input, String command) {
+        return input.substring(command.length()).trim().startsWith("#");
+    }
+
+    /**
+     * Parses the task ID from a command such as {@code mark #12}.
+     *
+     * @param input Full user input.
+     * @param command Command name at the start of the input.
+     * @return Task ID, or the error if the ID is missing or invalid.
+     */
+    public static ParseResult<Long> parseTaskId(String input, String command) {
+        String idPart = input.substring(command.length()).trim().substring(1).trim();
+
+        if (idPart.isEmpty()) {
+            return ParseResult.error(KingSimException.missingTaskId(command));
+        }
+
+        long id = parseNumber(idPart);
+        if (id == Long.MIN_VALUE) {
+            return ParseResult.error(KingSimException.invalidTaskId(command));
+        }
+        return ParseResult.ok(id);
+    }
+
+    /**
+     * Returns whether a command such as mark, unmark, or delete applies to several tasks,
+     * as in {@code delete 3,7,9-20}, {@code delete done} or {@code mark find book}, instead
+     * of to one task.
+     *
+     * @param input Full user input.
+     * @param command Command name at the start of the input.
+     * @return True if the argument is a list, a range, or a filter.
+     */
+    public static boolean isTaskSelection(String input, String command) {
+        String rest = input.substring(command.length()).trim();
+        return rest.equalsIgnoreCase("done") || isWord(rest, CommandRegistry.wordLength(rest), "find")
+                || rest.indexOf(',') >= 0 || rest.indexOf('-') > 0;
+    }
+
+    /**
+     * Parses the tasks a bulk command applies to, such as {@code 3,7,9-20}, {@code done}
+     * or {@code find book}.
+     *
+     * @param input Full user input.
+     * @param command Command name at the start of the input.
+     * @return Selected tasks, or the error if the list, range, or filter is invalid.
+     */
+    public static ParseResult<TaskSelection> parseTaskSelection(String input, String command) {
+        String rest = input.substring(command.length()).trim();
+        if (rest.equalsIgnoreCase("done")) {
+            return ParseResult.ok(TaskSelection.done());
+        }
+        if (isWord(rest, CommandRegistry.wordLength(rest), "find")) {
+            String keyword = rest.substring(4).trim();
+            if (keyword.isEmpty()) {
+                return ParseResult.error(KingSimException.invalidTaskSelection(command));
+            }
+            return ParseResult.ok(TaskSelection.matching(keyword));
+        }
+
+        String[] parts = rest.split(",", -1);
+        int[] ranges = new int[parts.length * 2];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i].trim();
+            int dash = part.indexOf('-', 1);
+            String first = dash == -1 ? part : part.substring(0, dash).trim();
+            String last = dash == -1 ? part : part.substring(dash + 1).trim();
+            if (first.isEmpty() || last.isEmpty()) {
+                return ParseResult.error(KingSimException.invalidTaskSelection(command));
+            }
+            long from = parseNumber(first);
+            long to = parseNumber(last);
+            if (from == Long.MIN_VALUE || to == Long.MIN_VALUE || to < from) {
+                return ParseResult.error(KingSimException.invalidTaskSelection(command));
+            }
+            if (from < 1 || to > Integer.MAX_VALUE) {
+                return ParseResult.error(KingSimException.invalidTaskNumber());
+            }
+            ranges[2 * i] = (int) from;
+            ranges[2 * i + 1] = (int) to;
+        }
+        return ParseResult.ok(TaskSelection.numbers(ranges));
+    }
+
+    /**
+     * Returns the number written in the given text, accepting the same input as
+     * {@link Long#parseLong(String)} but without throwing.
+     *
+     * @param text Text holding the number.
+     * @return Parsed number, or {@link Long#MIN_VALUE} if the text is not a number.
+     */
+    private static long parseNumber(String text) {
+        int i = 0;
+        boolean isNegative = false;
+        if (text.charAt(0) == '-' || text.charAt(0) == '+') {
+            isNegative = text.charAt(0) == '-';
+            i++;
+            if (text.length() == 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+
+        long value = 0;
+        for (; i < text.length(); i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0 || value > (Long.MAX_VALUE - digit) / 10) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return isNegative ? -value : value;
+    }
+
+    /**
+     * Parses a date and time entered in the format yyyy-MM-dd HHmm.
+     *
+     * @param text Date and time entered by the user.
+     * @param example Example date and time to show if the format is wrong.
+     * @return Parsed date and time.
+     * @throws KingSimException If the text is not a valid date and time.
+     */
+    public static LocalDateTime parseDateTime(String text, String example) throws KingSimException {
+        LocalDateTime dateTime = DateTimeParser.parseInput(text);
+        if (dateTime == null) {
+            throw KingSimException.invalidDateTime(example);
+        }
+        return dateTime;
+    }
+
+    /**
+     * Parses a date entered in the format yyyy-MM-dd.
+     *
+     * @param text Date entered by the user.
+     * @return Parsed date.
+     * @throws KingSimException If the text is not a valid date.
+     */
+    public static LocalDate parseDate(String text) throws KingSimException {
+        LocalDate date = DateTimeParser.parseInputDate(text);
+        if (date == null) {
+            throw KingSimException.invalidDate("2026-03-10");
         }
+        return date;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package kingsim;
+
+import java.util.ArrayList;
+
+/**
+ * Represents an index over task descriptions that {@link TaskList} keeps up to date
+ * so that {@code find} does not have to scan every task.
+ */
+interface SearchIndex {
+    /**
+     * Adds a task to the index.
+     *
+     * @param task Task that was added to the list.
+     */
+    void add(Task task);
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task Task that was removed from the list.
+     */
+    void remove(Task task);
+
+    /**
+     * Returns the indexed tasks whose lower-case descriptions contain the keyword,
+     * in list order.
+     *
+     * @param lowerKeyword Lower-case keyword to search for.
+     * @return Matching tasks, or null if this index cannot answer the query.
+     */
+    ArrayList<Task> find(String lowerKeyword);
+}
@@ -0,0 +1,151 @@
+package kingsim;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves KingSIM sessions to many users over TCP connections on localhost.
+ *
+ * <p>The first line a client sends is its user name. The session then runs the same
+ * commands as the console, with its own {@link Workspace} of task lists kept in its own
+ * directory in the server's data directory. A user can only have one session at a time.
+ *
+ * <p>Each session runs on a virtual thread when the Java runtime has them. Otherwise it
+ * runs on a platform thread with a small stack, as idle sessions only wait for input.
+ */
+public class SessionServer implements AutoCloseable {
+    private static final int BACKLOG = 1024;
+    private static final long SESSION_STACK_SIZE = 256 * 1024;
+
+    private final Path dataDirectory;
+    private final Options options;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions;
+    private final Set<String> activeUsers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a server listening on the given port of the loopback address.
+     *
+     * @param port TCP port, or 0 for any free port.
+     * @param dataDirectory Directory holding one directory of task lists per user.
+     * @param options Options choosing how each session's tasks are kept and persisted.
+     * @throws IOException If the port cannot be opened or the directory cannot be created.
+     */
+    public SessionServer(int port, Path dataDirectory, Options options) throws IOException {
+        this.dataDirectory = dataDirectory;
+        this.options = options;
+        Files.createDirectories(dataDirectory);
+        serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        sessions = newSessionExecutor();
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return TCP port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections and starts a session for each, until the server is closed.
+     */
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                // The server socket was closed
+                break;
+            } catch (IOException e) {
+                continue;
+            }
+            sessions.execute(() -> serve(socket));
+        }
+    }
+
+    /**
+     * Stops accepting connections and waits briefly for running sessions to finish.
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Nothing more is accepted either way
+        }
+        sessions.shutdown();
+        try {
+            sessions.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs one session over the given connection, until the user says bye or disconnects.
+     */
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            Ui ui = Ui.forStreams(socket.getInputStream(), socket.getOutputStream());
+            String name = ui.readCommand();
+            if (name == null) {
+                return;
+            }
+
+            String user = name.toLowerCase(Locale.ROOT);
+            if (!Workspace.isValidName(user)) {
+                ui.showError(KingSimException.invalidUserName().getMessage());
+                ui.close();
+                return;
+            }
+            if (!activeUsers.add(user)) {
+                ui.showError(KingSimException.userAlreadyConnected().getMessage());
+                ui.close();
+                return;
+            }
+            try {
+                new KingSIM(dataDirectory.resolve(user).resolve("kingsim.txt").toString(), options, ui).run();
+            } finally {
+                activeUsers.remove(user);
+            }
+        } catch (IOException e) {
+            // The connection was lost, and every change was already saved by the session
+        }
+    }
+
+    /**
+     * Returns an executor running each session on its own virtual thread if the runtime
+     * supports them, or on its own small-stack platform thread otherwise.
+     */
+    private static ExecutorService newSessionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(null, task, "kingsim-session-" + count.incrementAndGet(),
+                        SESSION_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
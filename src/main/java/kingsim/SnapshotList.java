@@ -0,0 +1,172 @@
+package kingsim;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Represents a list of tasks that threads can read while another thread changes it.
+ *
+ * <p>The tasks are kept in an array that is never changed once published. Every change
+ * copies the array, under a lock shared by all writers, and publishes the copy with a
+ * single volatile write. Readers never lock: {@link #snapshot()} returns the array as it
+ * was at that moment, which stays the same however the list changes afterwards.
+ * Iterating over the list also works on a snapshot. Changes take O(n) time, so this
+ * list suits many readers and few writers.
+ */
+class SnapshotList extends AbstractList<Task> implements RandomAccess, CompactingList {
+    private static final Task[] EMPTY = new Task[0];
+
+    private volatile Task[] elements;
+
+    /**
+     * Creates an empty list.
+     */
+    SnapshotList() {
+        elements = EMPTY;
+    }
+
+    /**
+     * Creates a list holding the given tasks in order.
+     *
+     * @param tasks Initial tasks.
+     */
+    SnapshotList(Collection<Task> tasks) {
+        elements = tasks.toArray(EMPTY);
+    }
+
+    /**
+     * Returns the tasks in the list as they are now. The returned list cannot be changed,
+     * and later changes to this list do not affect it.
+     *
+     * @return Snapshot of the list.
+     */
+    List<Task> snapshot() {
+        return new Snapshot(elements);
+    }
+
+    @Override
+    public Task get(int index) {
+        return elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return snapshot().iterator();
+    }
+
+    @Override
+    public synchronized Task set(int index, Task task) {
+        Task[] copy = elements.clone();
+        Task old = copy[index];
+        copy[index] = task;
+        elements = copy;
+        return old;
+    }
+
+    @Override
+    public synchronized void add(int index, Task task) {
+        Task[] old = elements;
+        if (index < 0 || index > old.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + old.length);
+        }
+        Task[] copy = new Task[old.length + 1];
+        System.arraycopy(old, 0, copy, 0, index);
+        copy[index] = task;
+        System.arraycopy(old, index, copy, index + 1, old.length - index);
+        elements = copy;
+        modCount++;
+    }
+
+    @Override
+    public synchronized Task remove(int index) {
+        Task[] old = elements;
+        Task removed = old[index];
+        Task[] copy = new Task[old.length - 1];
+        System.arraycopy(old, 0, copy, 0, index);
+        System.arraycopy(old, index + 1, copy, index, old.length - index - 1);
+        elements = copy;
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Removes the tasks at the given positions, copying the array only once.
+     *
+     * @param indexes Indexes of the tasks to remove, in increasing order without repeats.
+     */
+    @Override
+    public synchronized void removeAll(int[] indexes) {
+        if (indexes.length == 0) {
+            return;
+        }
+        Task[] old = elements;
+        Task[] copy = new Task[old.length - indexes.length];
+        System.arraycopy(old, 0, copy, 0, indexes[0]);
+        CompactingList.compact(indexes, old.length,
+                (from, to, count) -> System.arraycopy(old, from, copy, to, count));
+        elements = copy;
+        modCount++;
+    }
+
+    @Override
+    public synchronized void clear() {
+        elements = EMPTY;
+        modCount++;
+    }
+
+    /**
+     * An unchangeable view of one published version of the array.
+     */
+    static class Snapshot extends AbstractList<Task> implements RandomAccess {
+        private final Task[] elements;
+
+        private Snapshot(Task[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Task get(int index) {
+            return elements[index];
+        }
+
+        @Override
+        public int size() {
+            return elements.length;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOf(elements, elements.length, Object[].class);
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < elements.length;
+                }
+
+                @Override
+                public Task next() {
+                    if (next >= elements.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return elements[next++];
+                }
+            };
+        }
+    }
+}
@@ -1,18 +1,70 @@
 package kingsim;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDateTime;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Handles loading tasks from the file and saving tasks to the file.
+ * In journaling mode, each change is appended to a journal next to the data file,
+ * and the journal is folded into a fresh data file in the background once it grows
+ * past {@link #COMPACTION_THRESHOLD}. With {@link Durability#GROUP} or
+ * {@link Durability#ON_EXIT}, writes are handed to a {@link WriteBehind} queue
+ * instead of being made on the command thread. The data file may be in either
+ * {@link FileFormat}, which is detected when loading. With {@link ListBacking#LAZY}, a text
+ * data file is only indexed when loading, and tasks are decoded as they are used.
+ *
+ * <p>With {@link ListBacking#MAPPED}, the data file is the task store of an
+ * {@link OffHeapList} mapped into memory, so each change is already in the file when it is
+ * made. Neither the journal nor write-behind is used then: {@link Durability#FSYNC} forces
+ * every change to disk, {@link Durability#IMMEDIATE} leaves that to the operating system,
+ * and the other levels force the file when it is saved or closed.
+ *
+ * <p>Every data file format also records the next ID to give out, if it is larger than
+ * the tasks in the file imply, so that the IDs of deleted tasks are not given out again
+ * after a restart. It is read back through {@link #getNextId()}.
  */
 public class Storage {
+    /** Journal size in bytes after which the journal is folded into the data file. */
+    static final long COMPACTION_THRESHOLD = 1 << 20;
+    /** Journal operation starting the entries of a change to several tasks. */
+    private static final String GROUP_START = "G";
+    /** Journal operation ending the entries of a change to several tasks. */
+    private static final String GROUP_END = "E";
+
     private final Path filePath;
+    private final boolean isJournaling;
+    private final Durability durability;
+    private final FileFormat requestedFormat;
+    private final boolean isLazy;
+    private final boolean isMapped;
+    private final Journal journal;
+    private final WriteBehind writeBehind;
+    private final Object taskLock = new Object();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private volatile boolean hasStaleJournal;
+    private FileFormat format;
+    private List<String> loadProblems = new ArrayList<>();
+    private long lastSeq;
+    private long nextId = 1;
+    private ExecutorService compactor;
+    private Future<?> compaction;
+    private OffHeapList store;
+    private List<Task> changedTasks;
 
     /**
      * Creates a storage object using the given relative file path.
@@ -20,111 +72,654 @@ public class Storage {
      * @param relativePath Relative path to the data file.
      */
     public Storage(String relativePath) {
+        this(relativePath, new Options());
+    }
+
+    /**
+     * Creates a storage object using the given relative file path and startup options.
+     *
+     * @param relativePath Relative path to the data file.
+     * @param options Options choosing journaling and durability.
+     */
+    public Storage(String relativePath, Options options) {
         this.filePath = Paths.get(relativePath);
+        this.isMapped = options.getBacking() == ListBacking.MAPPED;
+        this.isJournaling = options.isJournaling() && !isMapped;
+        this.durability = options.getDurability();
+        this.requestedFormat = isMapped ? FileFormat.MAPPED : options.getFormat();
+        this.isLazy = options.getBacking() == ListBacking.LAZY;
+        this.format = requestedFormat == null ? FileFormat.TEXT : requestedFormat;
+        this.journal = new Journal(filePath);
+
+        if (isMapped) {
+            writeBehind = null;
+        } else if (durability == Durability.GROUP) {
+            writeBehind = new WriteBehind(new Flusher(), options.getGroupCommitMillis(), taskLock);
+        } else if (durability == Durability.ON_EXIT) {
+            writeBehind = new WriteBehind(new Flusher(), -1, taskLock);
+        } else {
+            writeBehind = null;
+        }
     }
 
     /**
-     * Loads tasks from the data file.
+     * Loads tasks from the data file, then replays any journal entries written after it.
+     * If a different format was requested than the one the file is in, the file is
+     * converted straight away. With {@link ListBacking#LAZY}, the tasks of a text data file
+     * are returned in a {@link LazyList}. With {@link ListBacking#MAPPED}, they are returned
+     * in an {@link OffHeapList} mapped over the data file.
      *
      * @return List of tasks loaded from the file.
      */
-    public ArrayList<Task> load() {
-        ArrayList<Task> tasks = new ArrayList<>();
+    public List<Task> load() {
+        List<Task> tasks = new ArrayList<>();
+        long snapshotSeq = 0;
+        FileFormat fileFormat = null;
+        loadProblems = new ArrayList<>();
+        nextId = 1;
         try {
-            if (!Files.exists(filePath)) {
-                return tasks;
+            if (isMapped && Files.exists(filePath) && OffHeapList.isStore(filePath)) {
+                closeStore();
+                if (!OffHeapList.hasNextId(filePath)) {
+                    OffHeapList old = OffHeapList.read(ByteBuffer.wrap(Files.readAllBytes(filePath)));
+                    writeStore(new ArrayList<>(old), true);
+                    return store;
+                }
+                store = OffHeapList.map(filePath);
+                return store;
             }
-
-            List<String> lines = Files.readAllLines(filePath);
-            for (String line : lines) {
-                Task t = decode(line);
-                if (t != null) {
-                    tasks.add(t);
+            if (Files.exists(filePath)) {
+                ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(filePath));
+                if (OffHeapList.isStore(data)) {
+                    fileFormat = FileFormat.MAPPED;
+                } else {
+                    fileFormat = BinaryFormat.isBinary(data) ? FileFormat.BINARY : FileFormat.TEXT;
                 }
+                if (fileFormat == FileFormat.MAPPED) {
+                    OffHeapList list = OffHeapList.read(data);
+                    tasks = new ArrayList<>(list);
+                    nextId = list.getNextId();
+                } else if (fileFormat == FileFormat.BINARY) {
+                    ArrayList<Task> decoded = new ArrayList<>();
+                    BinaryFormat.Header header = BinaryFormat.decode(data, decoded);
+                    tasks = decoded;
+                    snapshotSeq = header.seq;
+                    nextId = Math.max(nextId, header.nextId);
+                } else {
+                    TextFormat.Result result = isLazy ? TextFormat.index(data) : TextFormat.decode(data);
+                    tasks = result.tasks;
+                    loadProblems.addAll(result.problems);
+                    snapshotSeq = result.seq;
+                    nextId = Math.max(nextId, result.nextId);
+                }
+                if (requestedFormat == null) {
+                    format = fileFormat == FileFormat.MAPPED ? FileFormat.TEXT : fileFormat;
+                }
+            }
+            lastSeq = snapshotSeq;
+            if (journal.exists()) {
+                hasStaleJournal = true;
+                replay(tasks, snapshotSeq);
             }
-        } catch (IOException ignored) {
+            nextId = Math.max(nextId, lastId(tasks) + 1);
+            if (fileFormat != null && fileFormat != format) {
+                if (isMapped) {
+                    writeStore(tasks, true);
+                    tasks = store;
+                } else {
+                    writeDataFile(tasks, nextId, format);
+                }
+            }
+        } catch (IOException e) {
             // If reading fails, start with empty list (do not crash)
+            loadProblems.add("the file could not be read (" + e.getMessage() + ")");
         }
         return tasks;
     }
 
     /**
-     * Saves the given tasks to the data file.
+     * Returns the problems found by the last {@link #load()}, such as lines that
+     * could not be decoded and were skipped.
+     *
+     * @return Descriptions of the problems, empty if there were none.
+     */
+    public List<String> getLoadProblems() {
+        return loadProblems;
+    }
+
+    /**
+     * Returns the next ID to give out as recorded in the data file and journal, which is
+     * larger than the ID of any task they have held, including tasks deleted since. A task
+     * list made from the loaded tasks should not give out IDs below it.
+     *
+     * @return Next ID to give out.
+     */
+    public long getNextId() {
+        return store == null ? nextId : Math.max(nextId, store.getNextId());
+    }
+
+    /**
+     * Returns the lock to hold while changing the tasks saved here. With a write-behind
+     * durability level and no journal, the tasks are copied off the command thread while
+     * holding this lock, so a caller changing them on another thread must hold it too.
+     *
+     * @return Lock guarding the saved tasks.
+     */
+    public Object getTaskLock() {
+        return taskLock;
+    }
+
+    /**
+     * Saves the given tasks to the data file, replacing the whole file, together with the
+     * next ID to give out.
      *
      * @param tasks Tasks to be saved.
+     * @param nextId Next ID the task list will give out.
      * @throws IOException If writing to the file fails.
      */
-    public void save(ArrayList<Task> tasks) throws IOException {
+    public void save(List<Task> tasks, long nextId) throws IOException {
+        this.nextId = Math.max(this.nextId, nextId);
+        save(tasks);
+    }
+
+    /**
+     * Saves the given tasks to the data file, replacing the whole file.
+     * Pending writes are drained first, and any journal entries are folded in and removed.
+     * The tasks of the mapped list are already in the file, which is only forced to disk.
+     *
+     * @param tasks Tasks to be saved.
+     * @throws IOException If writing to the file fails.
+     */
+    public void save(List<Task> tasks) throws IOException {
+        if (isMapped) {
+            writeStore(tasks, durability != Durability.IMMEDIATE);
+            return;
+        }
+        if (writeBehind != null) {
+            writeBehind.drain();
+        }
+        awaitCompaction();
+        writeDataFile(tasks, nextId, format);
+    }
+
+    /**
+     * Persists a single change made to the given tasks, and the next ID to give out.
+     * Without journaling, this rewrites the whole file. With a write-behind durability
+     * level, the write is queued and then a failure of an earlier queued write is thrown
+     * here; without a journal, only a full write is marked as due, and the tasks are copied
+     * when it is flushed. The change is queued first so that it stays pending with the
+     * failed writes, and the journal never misses an entry that later entries depend on.
+     * A change to the mapped list is already in the file. A change to several tasks is
+     * journaled as one entry per task between a group start and a group end entry, all
+     * appended in a single write, so that replay can drop a group cut short by a crash
+     * instead of applying part of a bulk command.
+     *
+     * @param tasks Tasks after the change was made.
+     * @param change Change that was made.
+     * @param nextId Next ID the task list will give out.
+     * @throws IOException If writing to the file or journal fails.
+     */
+    public void saveChange(List<Task> tasks, Change change, long nextId) throws IOException {
+        synchronized (taskLock) {
+            this.nextId = Math.max(this.nextId, nextId);
+            changedTasks = tasks;
+        }
+        if (isMapped) {
+            writeStore(tasks, durability == Durability.FSYNC);
+            return;
+        }
+
+        if (!isJournaling) {
+            if (writeBehind != null) {
+                writeBehind.submitSnapshot();
+                checkDeferredFailure();
+            } else {
+                writeDataFile(tasks, this.nextId, format);
+            }
+            return;
+        }
+
+        List<String> entries = new ArrayList<>();
+        for (String entry : encodeChange(change)) {
+            lastSeq++;
+            entries.add(lastSeq + " " + entry);
+        }
+        if (writeBehind != null) {
+            writeBehind.submitEntries(entries);
+        } else {
+            createParentDirectories();
+            journal.append(entries);
+            if (durability == Durability.FSYNC) {
+                journal.sync();
+            }
+        }
+
+        if (journal.size() >= COMPACTION_THRESHOLD) {
+            compactInBackground(tasks);
+        }
+        checkDeferredFailure();
+    }
+
+    /**
+     * Throws the failure of a write made off the command thread, if one happened
+     * since the last check.
+     *
+     * @throws IOException If a deferred write failed.
+     */
+    public void checkDeferredFailure() throws IOException {
+        IOException failure = writeBehind == null ? null : writeBehind.takeFailure();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the number of bytes written to the data file and journal so far, including
+     * writes made off the command thread and changes made to the mapped list.
+     *
+     * @return Total bytes written.
+     */
+    public long getBytesWritten() {
+        long mappedBytes = store == null ? 0 : store.getBytesWritten();
+        return bytesWritten.get() + journal.getBytesWritten() + mappedBytes;
+    }
+
+    /**
+     * Waits for pending writes and background work to finish and closes the journal.
+     * The background threads are only stopped once everything has been written, so if
+     * closing fails, the storage keeps working as before and can be closed again later.
+     *
+     * @throws IOException If pending writes cannot be written or the journal cannot be closed.
+     */
+    public void close() throws IOException {
+        if (writeBehind != null) {
+            writeBehind.drain();
+        }
+        awaitCompaction();
+        journal.close();
+        if (store != null && durability != Durability.IMMEDIATE) {
+            store.force();
+        }
+
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+        if (compactor != null) {
+            compactor.shutdown();
+            compactor = null;
+        }
+        closeStore();
+    }
+
+    private void closeStore() throws IOException {
+        if (store != null) {
+            bytesWritten.addAndGet(store.getBytesWritten());
+            store.close();
+            store = null;
+        }
+    }
+
+    private void createParentDirectories() throws IOException {
         Path parent = filePath.getParent();
         if (parent != null && !Files.exists(parent)) {
             Files.createDirectories(parent);
         }
+    }
 
-        ArrayList<String> lines = new ArrayList<>();
-        for (Task t : tasks) {
-            lines.add(encode(t));
+    /**
+     * Copies and writes the batches handed over by the write-behind queue.
+     */
+    private class Flusher implements WriteBehind.Sink {
+        @Override
+        public WriteBehind.Snapshot takeSnapshot() {
+            return new WriteBehind.Snapshot(stableCopy(changedTasks), nextId, format);
         }
 
-        Files.write(filePath, lines);
+        /**
+         * Writes a batch, syncing it to disk.
+         */
+        @Override
+        public void flush(List<String> entries, WriteBehind.Snapshot snapshot) throws IOException {
+            if (snapshot != null) {
+                writeDataFile(snapshot.tasks, snapshot.nextId, snapshot.format);
+            }
+            if (!entries.isEmpty()) {
+                createParentDirectories();
+                journal.append(entries);
+                journal.sync();
+            }
+        }
     }
 
-    private String encode(Task t) {
-        String done = t.isDone() ? "1" : "0";
+    /**
+     * Rewrites the whole data file in the given format and removes journal entries it
+     * makes obsolete.
+     */
+    private void writeDataFile(List<Task> tasks, long nextId, FileFormat format) throws IOException {
+        createParentDirectories();
+        if (isJournaling) {
+            writeSnapshot(tasks, lastSeq, nextId, format);
+        } else {
+            writeBytes(filePath, encodeFile(tasks, 0, nextId, format));
+        }
+        if (isJournaling || hasStaleJournal) {
+            journal.clear();
+            hasStaleJournal = false;
+        }
+    }
 
-        if (t instanceof Todo) {
-            return "T | " + done + " | " + t.getDescription();
-        } else if (t instanceof Deadline) {
-            Deadline d = (Deadline) t;
-            return "D | " + done + " | " + d.getDescription() + " | " + d.getBy();
-        } else if (t instanceof Event) {
-            Event e = (Event) t;
-            return "E | " + done + " | " + e.getDescription() + " | " + e.getFrom() + " | " + e.getTo();
+    /**
+     * Makes the data file the task store of the given tasks. The mapped list is already in
+     * the file, so it is only forced to disk if asked. Any other list is copied into a task
+     * store: while the data file is mapped, it is rewritten in place, since a mapping cannot
+     * be released and some systems refuse to replace a mapped file; otherwise a new store
+     * replaces the data file and is kept mapped. Either way the store keeps the next ID to
+     * give out.
+     */
+    private void writeStore(List<Task> tasks, boolean isForced) throws IOException {
+        if (tasks != store) {
+            createParentDirectories();
+            OffHeapList list = tasks instanceof OffHeapList ? (OffHeapList) tasks : new OffHeapList(tasks);
+            list.reserveIdsBelow(nextId);
+            if (store != null) {
+                store.copyFrom(list);
+                store.force();
+            } else {
+                Path temp = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+                list.mapTo(temp);
+                list.force();
+                Files.move(temp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                store = list;
+            }
+            if (hasStaleJournal) {
+                journal.clear();
+                hasStaleJournal = false;
+            }
         } else {
-            return "T | " + done + " | " + t.getDescription();
+            store.reserveIdsBelow(nextId);
+            if (isForced) {
+                store.force();
+            }
         }
     }
 
     /**
-     * Returns the decoded task from a line in the data file.
-     * If the line is invalid, null is returned.
-     *
-     * @param line One line from the data file.
-     * @return Decoded task, or null if the line is invalid.
+     * Starts folding the journal into a new data file unless a compaction is already running.
+     * The tasks are copied on the calling thread so the background thread sees
+     * exactly the state as of the latest journal entry.
      */
-    private Task decode(String line) {
+    private void compactInBackground(List<Task> tasks) throws IOException {
+        if (compaction != null && !compaction.isDone()) {
+            return;
+        }
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "kingsim-compaction");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        List<Task> copy = stableCopy(tasks);
+        long seq = lastSeq;
+        long snapshotNextId = nextId;
+        FileFormat snapshotFormat = format;
+        journal.rotate();
+        compaction = compactor.submit(() -> {
+            writeSnapshot(copy, seq, snapshotNextId, snapshotFormat);
+            journal.deleteRotated();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the given tasks in a list that later commands cannot change, for writing off
+     * the command thread. A snapshot from a {@link SnapshotList} is used as it is, and a
+     * {@link LazyList} is copied without decoding its tasks.
+     */
+    private static List<Task> stableCopy(List<Task> tasks) {
+        if (tasks instanceof SnapshotList.Snapshot) {
+            return tasks;
+        }
+        return tasks instanceof LazyList ? ((LazyList) tasks).copy() : new ArrayList<>(tasks);
+    }
+
+    private void awaitCompaction() {
+        if (compaction == null) {
+            return;
+        }
         try {
-            String[] parts = line.split("\\s*\\|\\s*");
-            if (parts.length < 3) {
-                return null;
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+            // The journal is still intact, so the next compaction simply tries again
+        }
+        compaction = null;
+    }
+
+    /**
+     * Writes the tasks to a temporary file and moves it over the data file, so a crash
+     * never leaves a half-written data file. The file records the last journal entry
+     * the snapshot includes and the next ID to give out as of that entry.
+     */
+    private void writeSnapshot(List<Task> tasks, long seq, long nextId, FileFormat format) throws IOException {
+        Path temp = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        writeBytes(temp, encodeFile(tasks, seq, nextId, format));
+        Files.move(temp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the bytes to the file, forcing them to the storage device unless
+     * the durability level leaves that to the operating system.
+     */
+    private void writeBytes(Path path, byte[] bytes) throws IOException {
+        if (durability == Durability.IMMEDIATE) {
+            Files.write(path, bytes);
+            bytesWritten.addAndGet(bytes.length);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
             }
+            channel.force(false);
+        }
+        bytesWritten.addAndGet(bytes.length);
+    }
 
-            String type = parts[0].trim();
-            boolean isDone = parts[1].trim().equals("1");
-            String desc = parts[2].trim();
+    /**
+     * Returns the contents of a data file holding the given tasks, in the given format.
+     * A journal header is only written when journaling, and a next ID header only when
+     * the next ID is larger than the last task's ID implies.
+     */
+    private byte[] encodeFile(List<Task> tasks, long seq, long nextId, FileFormat format) {
+        if (format == FileFormat.BINARY) {
+            return BinaryFormat.encode(tasks, seq, nextId);
+        }
+        if (tasks instanceof LazyList) {
+            return encodeLazy((LazyList) tasks, seq, nextId);
+        }
 
-            Task t;
-            if (type.equals("T")) {
-                t = new Todo(desc);
-            } else if (type.equals("D")) {
-                if (parts.length < 4) {
-                    return null;
+        StringBuilder sb = new StringBuilder(tasks.size() * 32);
+        String newline = System.lineSeparator();
+        if (isJournaling) {
+            sb.append(TextFormat.journalHeader(seq)).append(newline);
+        }
+        if (nextId > lastId(tasks) + 1) {
+            sb.append(TextFormat.nextIdHeader(nextId)).append(newline);
+        }
+        for (Task t : tasks) {
+            sb.append(TextFormat.encode(t)).append(newline);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the contents of a text data file holding the given tasks, copying the lines
+     * of tasks that were never decoded.
+     */
+    private byte[] encodeLazy(LazyList tasks, long seq, long nextId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(tasks.size() * 32);
+        byte[] newline = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        if (isJournaling) {
+            out.writeBytes(TextFormat.journalHeader(seq).getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(newline);
+        }
+        if (nextId > lastId(tasks) + 1) {
+            out.writeBytes(TextFormat.nextIdHeader(nextId).getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(newline);
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.writeLine(i, out);
+            out.writeBytes(newline);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns the ID of the last task, which is the largest one since IDs increase along
+     * the list, or 0 if there are no tasks.
+     */
+    private static long lastId(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return 0;
+        }
+        int last = tasks.size() - 1;
+        return tasks instanceof IdList ? ((IdList) tasks).getId(last) : tasks.get(last).getId();
+    }
+
+    /**
+     * Applies journal entries newer than the snapshot to the loaded tasks.
+     * Entries that cannot be parsed or applied, such as a line cut short by a crash, are skipped.
+     * The entries of a group are only applied once the whole group has been read: a group
+     * missing any entry or its end, as after a crash in the middle of the write, is dropped
+     * whole. Its sequence numbers are not counted as used, so entries appended after the
+     * restart reuse them and cannot be mistaken for the rest of the group.
+     */
+    private void replay(List<Task> tasks, long snapshotSeq) throws IOException {
+        List<String[]> group = null;
+        long groupSeq = 0;
+        int groupSize = 0;
+        for (String line : journal.readAll()) {
+            String[] parts = line.split(" ", 3);
+            long seq = parts.length < 3 ? 0 : parseSeq(parts[0]);
+            if (group != null) {
+                if (seq == groupSeq + group.size() + 1 && group.size() < groupSize) {
+                    group.add(parts);
+                    continue;
                 }
-                t = new Deadline(desc, LocalDateTime.parse(parts[3].trim()));
-            } else if (type.equals("E")) {
-                if (parts.length < 5) {
-                    return null;
+                if (seq == groupSeq + groupSize + 1 && parts[1].equals(GROUP_END)) {
+                    for (String[] entry : group) {
+                        applyEntry(tasks, entry[1], entry[2]);
+                    }
+                    lastSeq = Math.max(lastSeq, seq);
+                    group = null;
+                    continue;
                 }
-                t = new Event(desc, LocalDateTime.parse(parts[3].trim()), LocalDateTime.parse(parts[4].trim()));
-            } else {
-                return null;
+                group = null;
+            }
+            if (parts.length < 3 || seq <= snapshotSeq) {
+                continue;
             }
+            if (parts[1].equals(GROUP_START)) {
+                try {
+                    groupSize = Integer.parseInt(parts[2].trim());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                group = new ArrayList<>();
+                groupSeq = seq;
+                continue;
+            }
+            if (applyEntry(tasks, parts[1], parts[2])) {
+                lastSeq = Math.max(lastSeq, seq);
+            }
+        }
+    }
 
-            if (isDone) {
-                t.markDone();
+    private boolean applyEntry(List<Task> tasks, String op, String payload) {
+        if (op.equals("A")) {
+            Task t = TextFormat.decode(payload);
+            if (t == null) {
+                return false;
             }
-            return t;
-        } catch (Exception e) {
-            return null;
+            tasks.add(t);
+            nextId = Math.max(nextId, t.getId() + 1);
+            return true;
+        }
+
+        int index;
+        try {
+            index = Integer.parseInt(payload.trim());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (index < 0 || index >= tasks.size()) {
+            return false;
+        }
+
+        switch (op) {
+        case "M":
+            tasks.get(index).markDone();
+            return true;
+        case "U":
+            tasks.get(index).unmarkDone();
+            return true;
+        case "X":
+            tasks.remove(index);
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private long parseSeq(String text) {
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the journal entries for a change, without their sequence numbers. Deletions
+     * are listed from the last task to the first, so that each index is still right when
+     * the entries are replayed in order. The entries of a change to several tasks are
+     * framed by a group start and a group end entry, each giving the number of entries.
+     */
+    private List<String> encodeChange(Change change) {
+        if (change.getType() == Change.Type.ADD) {
+            return List.of("A " + TextFormat.encode(change.getTask()));
+        }
+        int[] indexes = change.getIndexes();
+        boolean isGroup = indexes.length > 1;
+        List<String> entries = new ArrayList<>(indexes.length + 2);
+        if (isGroup) {
+            entries.add(GROUP_START + " " + indexes.length);
+        }
+        switch (change.getType()) {
+        case MARK:
+            for (int index : indexes) {
+                entries.add("M " + index);
+            }
+            break;
+        case UNMARK:
+            for (int index : indexes) {
+                entries.add("U " + index);
+            }
+            break;
+        default:
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                entries.add("X " + indexes[i]);
+            }
+            break;
+        }
+        if (isGroup) {
+            entries.add(GROUP_END + " " + indexes.length);
         }
+        return entries;
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,25 @@ package kingsim;
 
 /**
  * Represents a task with a description and a done/not-done status.
+ *
+ * <p>The way a task is shown is cached the first time it is needed. Everything after
+ * the status icon never changes, and the string returned by {@link #toString()} is cached
+ * separately for each status, so marking or unmarking a task never drops a cached string.
+ *
+ * <p>The status is volatile, so a task marked on one thread is seen as marked by every
+ * thread reading it afterwards. Each cached string is built from a single read of the
+ * status and stored for that status only, so a string cached by a reader racing with a
+ * writer is never shown for the wrong status.
  */
 public class Task {
     private final String description;
-    private boolean isDone;
+    private String lowerDescription;
+    private String renderedTail;
+    private String renderedNotDone;
+    private String renderedDone;
+    private volatile boolean isDone;
+    private long sequence;
+    private long id;
 
     /**
      * Creates a task with the given description.
@@ -39,6 +54,19 @@ public class Task {
     public String getDescription() {
         return description;
     }
+    /**
+     * Returns the lower-case description of this task, used for case-insensitive searching.
+     * It is computed once and then reused.
+     *
+     * @return Lower-case description of the task.
+     */
+    String getLowerDescription() {
+        if (lowerDescription == null) {
+            lowerDescription = description.toLowerCase();
+        }
+        return lowerDescription;
+    }
+
     /**
      * Returns whether this task has been marked as done.
      *
@@ -48,12 +76,91 @@ public class Task {
         return isDone;
     }
 
-    private String getStatusIcon() {
-        return isDone ? "X" : " ";
+    /**
+     * Returns the position of this task in the order tasks were added to its list.
+     * Search indexes use it to return results in list order.
+     *
+     * @return Sequence number of the task.
+     */
+    long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Returns the stable ID of this task. Unlike its position in the list, the ID does not
+     * change when other tasks are deleted, and it is kept in the data file across restarts.
+     *
+     * @return ID of the task, or 0 if it has not been given one yet.
+     */
+    long getId() {
+        return id;
+    }
+
+    void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Appends how this task is shown to the user to the given builder, so that long
+     * lists can be shown without creating a string for every task. Once the task has
+     * been shown, this does not allocate.
+     *
+     * @param sb Builder to append to.
+     */
+    void appendTo(StringBuilder sb) {
+        appendTo(sb, isDone);
+    }
+
+    private void appendTo(StringBuilder sb, boolean isDone) {
+        sb.append(getTypeTag()).append('[').append(isDone ? 'X' : ' ').append(getRenderedTail());
+    }
+
+    /**
+     * Returns the tag shown before the status icon, such as {@code [T] }.
+     *
+     * @return Type tag, empty for a plain task.
+     */
+    String getTypeTag() {
+        return "";
+    }
+
+    /**
+     * Appends the details shown after the description, such as the dates of the task.
+     *
+     * @param sb Builder to append to.
+     */
+    void appendDetails(StringBuilder sb) {
+    }
+
+    private String getRenderedTail() {
+        if (renderedTail == null) {
+            StringBuilder sb = new StringBuilder(description.length() + 48);
+            sb.append("] ").append(description);
+            appendDetails(sb);
+            renderedTail = sb.toString();
+        }
+        return renderedTail;
     }
 
     @Override
     public String toString() {
-        return "[" + getStatusIcon() + "] " + description;
+        boolean isDone = this.isDone;
+        String rendered = isDone ? renderedDone : renderedNotDone;
+        if (rendered == null) {
+            String tail = getRenderedTail();
+            StringBuilder sb = new StringBuilder(tail.length() + 8);
+            appendTo(sb, isDone);
+            rendered = sb.toString();
+            if (isDone) {
+                renderedDone = rendered;
+            } else {
+                renderedNotDone = rendered;
+            }
+        }
+        return rendered;
     }
-}
\ No newline at end of file
+}
@@ -1,18 +1,49 @@
 package kingsim;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
 
 /**
  * Represents the list of tasks.
+ * The list can keep a {@link SearchIndex} up to date so that {@link #find(String)}
+ * does not scan every task. It is built the first time the list is searched, and a
+ * {@link TimeIndex} the first time tasks are looked up by time; each is kept up to date
+ * from then on. Loading a list therefore never reads every task for an index, which
+ * keeps a {@link LazyList} from decoding the whole data file before it is needed.
+ *
+ * <p>Every task has a stable ID that is kept across deletes and restarts. New IDs are
+ * always larger than existing ones, so IDs increase along the list and the position of
+ * a task can be found from its ID by binary search. They are also larger than the ID of
+ * any task deleted before, as long as the next ID is saved with the tasks and given back
+ * through {@link #reserveIdsBelow(long)}.
+ *
+ * <p>Over an {@link IdList} whose IDs already increase, such as a {@link LazyList}, no task
+ * is created up front: the IDs are read from the list itself, and each task's sequence
+ * number is its ID. Otherwise every task is created and given an ID as usual. Over a
+ * {@link PackedList}, such as a {@link ColumnarList}, which creates a new task object every
+ * time one is read, searches scan the stored fields instead of keeping indexes of task objects.
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private final List<Task> tasks;
+    private final IndexType indexType;
+    private SearchIndex index;
+    private final HashMap<Long, Task> idMap;
+    private final IdList idList;
+    private final PackedList columns;
+    private TimeIndex timeIndex;
+    private long nextSequence;
+    private long nextId = 1;
 
     /**
      * Creates an empty task list.
      */
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(new ArrayList<>());
     }
 
     /**
@@ -20,8 +51,61 @@ public class TaskList {
      *
      * @param tasks Existing list of tasks.
      */
-    public TaskList(ArrayList<Task> tasks) {
+    public TaskList(List<Task> tasks) {
+        this(tasks, IndexType.NONE);
+    }
+
+    /**
+     * Creates a task list using an existing list of tasks, indexed for searching.
+     * Tasks without an ID, such as those loaded from a data file written before IDs
+     * were kept, are given new ones.
+     *
+     * @param tasks Existing list of tasks, in any {@link ListBacking}.
+     * @param indexType Kind of search index to keep.
+     */
+    public TaskList(List<Task> tasks, IndexType indexType) {
         this.tasks = tasks;
+        this.columns = tasks instanceof PackedList ? (PackedList) tasks : null;
+        this.indexType = columns != null ? IndexType.NONE : indexType;
+        if (tasks instanceof IdList && ((IdList) tasks).hasIncreasingIds()) {
+            this.idList = (IdList) tasks;
+            this.idMap = null;
+            nextId = tasks.isEmpty() ? 1 : idList.getId(tasks.size() - 1) + 1;
+            nextSequence = nextId;
+            return;
+        }
+
+        this.idList = null;
+        this.idMap = new HashMap<>(Math.max(16, tasks.size() * 4 / 3 + 1));
+        for (Task task : tasks) {
+            nextId = Math.max(nextId, task.getId() + 1);
+        }
+        for (Task task : tasks) {
+            task.setSequence(nextSequence++);
+            if (task.getId() <= 0 || idMap.containsKey(task.getId())) {
+                task.setId(nextId++);
+            }
+            idMap.put(task.getId(), task);
+        }
+    }
+
+    /**
+     * Returns the ID the next task added will get, which no task in the list has ever had.
+     *
+     * @return Next ID to give out.
+     */
+    public long getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Makes sure tasks added from now on get IDs of at least the given one, such as the next
+     * ID saved with the tasks, so that the IDs of tasks deleted before are not given out again.
+     *
+     * @param id Smallest ID that may be given out.
+     */
+    public void reserveIdsBelow(long id) {
+        nextId = Math.max(nextId, id);
     }
 
     /**
@@ -30,7 +114,18 @@ public class TaskList {
      * @param task Task to be added.
      */
     public void add(Task task) {
+        task.setSequence(nextSequence++);
+        task.setId(nextId++);
+        if (idMap != null) {
+            idMap.put(task.getId(), task);
+        }
         tasks.add(task);
+        if (index != null) {
+            index.add(task);
+        }
+        if (timeIndex != null) {
+            timeIndex.add(task);
+        }
     }
 
     /**
@@ -40,7 +135,59 @@ public class TaskList {
      * @return Removed task.
      */
     public Task remove(int index) {
-        return tasks.remove(index);
+        Task removed = tasks.remove(index);
+        if (idMap != null) {
+            idMap.remove(removed.getId());
+        }
+        if (this.index != null) {
+            this.index.remove(removed);
+        }
+        if (timeIndex != null) {
+            timeIndex.remove(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns and removes the tasks at the given indexes in one pass. Each later task is
+     * moved once, instead of once for every task removed before it, except in a
+     * {@link TaskTree}, where the tasks are removed one by one in O(log n) each.
+     *
+     * @param indexes Indexes of the tasks to remove, in increasing order without repeats.
+     * @return Removed tasks, in list order.
+     */
+    public List<Task> removeAll(int[] indexes) {
+        ArrayList<Task> removed = new ArrayList<>(indexes.length);
+        for (int i : indexes) {
+            removed.add(tasks.get(i));
+        }
+        if (tasks instanceof CompactingList) {
+            ((CompactingList) tasks).removeAll(indexes);
+        } else if (tasks instanceof RandomAccess) {
+            int size = CompactingList.compact(indexes, tasks.size(), (from, to, count) -> {
+                for (int i = 0; i < count; i++) {
+                    tasks.set(to + i, tasks.get(from + i));
+                }
+            });
+            tasks.subList(size, tasks.size()).clear();
+        } else {
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                tasks.remove(indexes[i]);
+            }
+        }
+
+        for (Task task : removed) {
+            if (idMap != null) {
+                idMap.remove(task.getId());
+            }
+            if (this.index != null) {
+                this.index.remove(task);
+            }
+            if (timeIndex != null) {
+                timeIndex.remove(task);
+            }
+        }
+        return removed;
     }
 
     /**
@@ -53,6 +200,152 @@ public class TaskList {
         return tasks.get(index);
     }
 
+    /**
+     * Marks the task at the given index as done or not done.
+     *
+     * @param index Index of the task.
+     * @param isDone True to mark the task as done, false to mark it as not done.
+     * @return Task after the change.
+     */
+    public Task setDone(int index, boolean isDone) {
+        Task task = tasks.get(index);
+        if (isDone) {
+            task.markDone();
+        } else {
+            task.unmarkDone();
+        }
+        if (columns != null) {
+            columns.setDone(index, isDone);
+        }
+        return task;
+    }
+
+    /**
+     * Marks the tasks at the given indexes as done or not done.
+     *
+     * @param indexes Indexes of the tasks.
+     * @param isDone True to mark the tasks as done, false to mark them as not done.
+     * @return Tasks after the change, in the order of the indexes.
+     */
+    public List<Task> setDone(int[] indexes, boolean isDone) {
+        ArrayList<Task> changed = new ArrayList<>(indexes.length);
+        for (int i : indexes) {
+            changed.add(setDone(i, isDone));
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the indexes of the tasks marked as done.
+     *
+     * @return Indexes of the done tasks, in increasing order.
+     */
+    public int[] indexesOfDone() {
+        int[] indexes = new int[tasks.size()];
+        int count = 0;
+        if (columns != null) {
+            for (int i = 0; i < columns.size(); i++) {
+                if (columns.isDoneAt(i)) {
+                    indexes[count++] = i;
+                }
+            }
+        } else {
+            int i = 0;
+            for (Task task : tasks) {
+                if (task.isDone()) {
+                    indexes[count++] = i;
+                }
+                i++;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * Returns the indexes of the tasks whose descriptions contain the given keyword,
+     * ignoring case, as found by {@link #find(String)}. The positions are found in one pass
+     * over the list, checking each task's ID against the IDs of the matches, so this takes
+     * linear time even when the IDs are out of order.
+     *
+     * @param keyword Keyword used to search task descriptions.
+     * @return Indexes of the matching tasks, in increasing order.
+     */
+    public int[] indexesOfMatches(String keyword) {
+        ArrayList<Task> matches = find(keyword);
+        HashSet<Long> matchIds = new HashSet<>(Math.max(16, matches.size() * 4 / 3 + 1));
+        for (Task match : matches) {
+            matchIds.add(match.getId());
+        }
+
+        int[] indexes = new int[matches.size()];
+        int count = 0;
+        if (idList != null) {
+            for (int i = 0; i < tasks.size() && count < indexes.length; i++) {
+                if (matchIds.contains(idList.getId(i))) {
+                    indexes[count++] = i;
+                }
+            }
+        } else {
+            int i = 0;
+            for (Task task : tasks) {
+                if (count < indexes.length && matchIds.contains(task.getId())) {
+                    indexes[count++] = i;
+                }
+                i++;
+            }
+        }
+        return Arrays.copyOf(indexes, count);
+    }
+
+    /**
+     * Returns the position of the task with the given ID.
+     *
+     * @param id ID of the task.
+     * @return Index of the task, or -1 if no task has the ID.
+     */
+    public int indexOfId(long id) {
+        if (idList != null) {
+            return indexOfListedId(id);
+        }
+        Task task = idMap.get(id);
+        if (task == null) {
+            return -1;
+        }
+
+        int low = 0;
+        int high = tasks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Task candidate = tasks.get(mid);
+            if (candidate == task) {
+                return mid;
+            } else if (candidate.getId() < id) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        // IDs are out of order only if the data file was edited by hand
+        return tasks.indexOf(task);
+    }
+
+    private int indexOfListedId(long id) {
+        int low = 0;
+        int high = tasks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long candidate = idList.getId(mid);
+            if (candidate == id) {
+                return mid;
+            } else if (candidate < id) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Returns the number of tasks in the list.
      *
@@ -76,26 +369,84 @@ public class TaskList {
      *
      * @return List of all tasks.
      */
-    public ArrayList<Task> getAll() {
+    public List<Task> getAll() {
         return tasks;
     }
 
     /**
-     * Returns tasks whose descriptions contain the given keyword.
+     * Returns tasks whose descriptions contain the given keyword, ignoring case.
+     * The search index answers the query when it can; otherwise every task is checked.
      *
      * @param keyword Keyword used to search task descriptions.
-     * @return List of matching tasks.
+     * @return List of matching tasks, in list order.
      */
-
     public ArrayList<Task> find(String keyword) {
-        ArrayList<Task> matches = new ArrayList<>();
         String lowerKeyword = keyword.toLowerCase();
+        if (columns != null) {
+            return columns.find(lowerKeyword);
+        }
+        SearchIndex searchIndex = getSearchIndex();
+        if (searchIndex != null) {
+            ArrayList<Task> matches = searchIndex.find(lowerKeyword);
+            if (matches != null) {
+                return matches;
+            }
+        }
 
+        ArrayList<Task> matches = new ArrayList<>();
         for (Task task : tasks) {
-            if (task.getDescription().toLowerCase().contains(lowerKeyword)) {
+            if (task.getLowerDescription().contains(lowerKeyword)) {
                 matches.add(task);
             }
         }
         return matches;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the deadlines due strictly before the given time, earliest first.
+     *
+     * @param time Time the deadlines must be due before.
+     * @return List of matching deadlines.
+     */
+    public ArrayList<Task> findDueBefore(LocalDateTime time) {
+        if (columns != null) {
+            return columns.findDueBefore(time);
+        }
+        return getTimeIndex().dueBefore(time);
+    }
+
+    /**
+     * Returns the deadlines due within the given range and the events overlapping it,
+     * ordered by due or start time.
+     *
+     * @param from Start of the range, inclusive.
+     * @param to End of the range, inclusive.
+     * @return List of matching deadlines and events.
+     */
+    public ArrayList<Task> findBetween(LocalDateTime from, LocalDateTime to) {
+        if (columns != null) {
+            return columns.findBetween(from, to);
+        }
+        return getTimeIndex().between(from, to);
+    }
+
+    private SearchIndex getSearchIndex() {
+        if (index == null && indexType != IndexType.NONE) {
+            index = indexType.create();
+            for (Task task : tasks) {
+                index.add(task);
+            }
+        }
+        return index;
+    }
+
+    private TimeIndex getTimeIndex() {
+        if (timeIndex == null) {
+            timeIndex = new TimeIndex();
+            for (Task task : tasks) {
+                timeIndex.add(task);
+            }
+        }
+        return timeIndex;
+    }
+}
@@ -0,0 +1,85 @@
+package kingsim;
+
+import java.util.BitSet;
+
+/**
+ * Represents the tasks a bulk mark, unmark, or delete command applies to: a list of task
+ * numbers and ranges such as {@code 3,7,9-20}, the tasks marked as done, or the tasks
+ * whose descriptions contain a keyword.
+ */
+public class TaskSelection {
+    /**
+     * Kinds of task selections.
+     */
+    public enum Kind {
+        NUMBERS, DONE, MATCHING
+    }
+
+    private static final TaskSelection DONE = new TaskSelection(Kind.DONE, null, null);
+
+    private final Kind kind;
+    private final int[] ranges;
+    private final String keyword;
+
+    private TaskSelection(Kind kind, int[] ranges, String keyword) {
+        this.kind = kind;
+        this.ranges = ranges;
+        this.keyword = keyword;
+    }
+
+    /**
+     * Returns a selection of the tasks with the given numbers.
+     *
+     * @param ranges First and last task number of each range, one-based and inclusive.
+     * @return Selection of the numbered tasks.
+     */
+    public static TaskSelection numbers(int[] ranges) {
+        return new TaskSelection(Kind.NUMBERS, ranges, null);
+    }
+
+    /**
+     * Returns a selection of the tasks marked as done.
+     *
+     * @return Selection of the done tasks.
+     */
+    public static TaskSelection done() {
+        return DONE;
+    }
+
+    /**
+     * Returns a selection of the tasks whose descriptions contain the given keyword.
+     *
+     * @param keyword Keyword to search task descriptions for.
+     * @return Selection of the matching tasks.
+     */
+    public static TaskSelection matching(String keyword) {
+        return new TaskSelection(Kind.MATCHING, null, keyword);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns the zero-based indexes of the numbered tasks, in increasing order and
+     * without repeats, however the numbers and ranges were written.
+     *
+     * @param size Number of tasks in the list.
+     * @return Indexes of the selected tasks.
+     * @throws KingSimException If a task number is past the end of the list.
+     */
+    public int[] getIndexes(int size) throws KingSimException {
+        BitSet selected = new BitSet();
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i + 1] > size) {
+                throw KingSimException.invalidTaskNumber();
+            }
+            selected.set(ranges[i] - 1, ranges[i + 1]);
+        }
+        return selected.stream().toArray();
+    }
+}
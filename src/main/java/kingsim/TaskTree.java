@@ -0,0 +1,214 @@
+package kingsim;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Represents a list of tasks stored in a balanced tree instead of an array, so that
+ * getting, inserting and removing a task at any position takes O(log n) time.
+ *
+ * <p>The tree is a treap keyed by position: each node records the size of its subtree,
+ * which is how a position is found, and a random priority, which keeps the tree balanced.
+ * Iterating over the whole list takes O(n) time.
+ */
+class TaskTree extends AbstractList<Task> {
+    private static class Node {
+        private Task task;
+        private final int priority;
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(Task task, int priority) {
+            this.task = task;
+            this.priority = priority;
+        }
+    }
+
+    private final Random random = new Random();
+    private Node root;
+
+    /**
+     * Creates an empty tree.
+     */
+    TaskTree() {
+    }
+
+    /**
+     * Creates a tree holding the given tasks in order, in O(n) time.
+     *
+     * @param tasks Initial tasks.
+     */
+    TaskTree(Collection<Task> tasks) {
+        ArrayDeque<Node> rightSpine = new ArrayDeque<>();
+        for (Task task : tasks) {
+            Node node = new Node(task, random.nextInt());
+            Node last = null;
+            while (!rightSpine.isEmpty() && rightSpine.peek().priority < node.priority) {
+                last = rightSpine.pop();
+                update(last);
+            }
+            node.left = last;
+            if (!rightSpine.isEmpty()) {
+                rightSpine.peek().right = node;
+            }
+            rightSpine.push(node);
+        }
+        while (!rightSpine.isEmpty()) {
+            root = rightSpine.pop();
+            update(root);
+        }
+    }
+
+    @Override
+    public Task get(int index) {
+        return nodeAt(index).task;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Node node = nodeAt(index);
+        Task old = node.task;
+        node.task = task;
+        return old;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node[] parts = split(root, index);
+        root = merge(merge(parts[0], new Node(task, random.nextInt())), parts[1]);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        Node[] parts = split(root, index);
+        Node[] rest = split(parts[1], 1);
+        root = merge(parts[0], rest[1]);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<Node> path = new ArrayDeque<>();
+            private final int expectedModCount = modCount;
+
+            {
+                pushLeft(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public Task next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node node = path.pop();
+                pushLeft(node.right);
+                return node.task;
+            }
+
+            private void pushLeft(Node node) {
+                while (node != null) {
+                    path.push(node);
+                    node = node.left;
+                }
+            }
+        };
+    }
+
+    private Node nodeAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Splits the tree into the first {@code count} tasks and the rest.
+     */
+    private static Node[] split(Node node, int count) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+        int leftSize = size(node.left);
+        if (count <= leftSize) {
+            Node[] parts = split(node.left, count);
+            node.left = parts[1];
+            update(node);
+            return new Node[] {parts[0], node};
+        }
+        Node[] parts = split(node.right, count - leftSize - 1);
+        node.right = parts[0];
+        update(node);
+        return new Node[] {node, parts[1]};
+    }
+
+    /**
+     * Joins two trees, with every task of {@code left} before every task of {@code right}.
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+}
@@ -0,0 +1,446 @@
+package kingsim;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Encodes and decodes the pipe-delimited text data file format.
+ *
+ * <p>Each task is one line such as {@code 12 | D | 1 | desc | 2026-03-10T18:00}, where the
+ * leading task ID may be left out, as in files written before IDs were kept. Lines are
+ * scanned by hand instead of being split with a regex. Large files are cut into chunks
+ * at line boundaries and the chunks are decoded in parallel, keeping the task order.
+ * Lines starting with {@code #} are comments, except for the journal header and the next
+ * ID header written by {@link Storage}.
+ *
+ * <p>A file can also be indexed instead of decoded: every line is still checked, but only
+ * its position and task ID are kept, and a {@link LazyList} decodes each task when it is
+ * first needed.
+ */
+class TextFormat {
+    /** Files smaller than this are decoded on the calling thread only. */
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private static final String JOURNAL_HEADER = "# journal ";
+    private static final String NEXT_ID_HEADER = "# next id ";
+
+    /**
+     * Holds the outcome of decoding a data file.
+     */
+    static class Result {
+        final List<Task> tasks;
+        final List<String> problems;
+        final long seq;
+        /** Next ID header value, or 0 if the file has none. */
+        final long nextId;
+
+        private Result(List<Task> tasks, List<String> problems, long seq, long nextId) {
+            this.tasks = tasks;
+            this.problems = problems;
+            this.seq = seq;
+            this.nextId = nextId;
+        }
+    }
+
+    /**
+     * Holds the tasks decoded, or the lines indexed, from one chunk of the file.
+     */
+    private static class Chunk {
+        private final ArrayList<Task> tasks = new ArrayList<>();
+        private final List<Integer> badLines = new ArrayList<>();
+        private final List<String> reasons = new ArrayList<>();
+        private int lineCount;
+        private long seq;
+        private long nextId;
+        private String reason;
+        private int[] starts = new int[0];
+        private int[] ends = new int[0];
+        private long[] ids = new long[0];
+        private int indexed;
+
+        // Fields of the line last parsed
+        private long id;
+        private byte type;
+        private boolean isDone;
+        private int descStart;
+        private int descEnd;
+        private LocalDateTime from;
+        private LocalDateTime to;
+
+        private void addLine(int start, int end, long id) {
+            if (indexed == starts.length) {
+                int capacity = Math.max(16, indexed * 2);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                ids = Arrays.copyOf(ids, capacity);
+            }
+            starts[indexed] = start;
+            ends[indexed] = end;
+            ids[indexed] = id;
+            indexed++;
+        }
+    }
+
+    /**
+     * Returns the line for the given task in the text format.
+     *
+     * @param t Task to encode.
+     * @return Encoded line without a line separator.
+     */
+    static String encode(Task t) {
+        String id = t.getId() > 0 ? t.getId() + " | " : "";
+        String done = t.isDone() ? "1" : "0";
+
+        if (t instanceof Deadline) {
+            Deadline d = (Deadline) t;
+            return id + "D | " + done + " | " + d.getDescription() + " | " + d.getBy();
+        } else if (t instanceof Event) {
+            Event e = (Event) t;
+            return id + "E | " + done + " | " + e.getDescription() + " | " + e.getFrom() + " | " + e.getTo();
+        } else {
+            return id + "T | " + done + " | " + t.getDescription();
+        }
+    }
+
+    /**
+     * Returns the header line recording the last journal entry a data file includes.
+     *
+     * @param seq Sequence number of the last journal entry.
+     * @return Header line without a line separator.
+     */
+    static String journalHeader(long seq) {
+        return JOURNAL_HEADER + seq;
+    }
+
+    /**
+     * Returns the header line recording the smallest ID no task in a data file has ever had,
+     * so that the IDs of deleted tasks are not given out again.
+     *
+     * @param nextId Next ID to give out.
+     * @return Header line without a line separator.
+     */
+    static String nextIdHeader(long nextId) {
+        return NEXT_ID_HEADER + nextId;
+    }
+
+    /**
+     * Returns the decoded task from a single line.
+     *
+     * @param line One line in the text format.
+     * @return Decoded task, or null if the line is invalid.
+     */
+    static Task decode(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return decode(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Returns the decoded task from the given bytes of a line already checked by {@link #index}.
+     *
+     * @param bytes Bytes holding the line.
+     * @param start Index of the first byte of the line.
+     * @param end Index just after the last byte of the line, without the line separator.
+     * @return Decoded task, or null if the line is invalid.
+     */
+    static Task decode(byte[] bytes, int start, int end) {
+        Chunk chunk = new Chunk();
+        return parseLine(bytes, start, end, chunk) ? createTask(bytes, chunk) : null;
+    }
+
+    /**
+     * Decodes all tasks in the given file contents.
+     * Invalid lines are skipped and described in {@link Result#problems}.
+     *
+     * @param data Contents of the data file.
+     * @return Decoded tasks in file order, problems found and the header values.
+     */
+    static Result decode(ByteBuffer data) {
+        return read(data, false);
+    }
+
+    /**
+     * Indexes all tasks in the given file contents, which must be backed by an array.
+     * Invalid lines are skipped and described in {@link Result#problems}, as when decoding.
+     *
+     * @param data Contents of the data file.
+     * @return Tasks in file order as a {@link LazyList}, problems found and the header values.
+     */
+    static Result index(ByteBuffer data) {
+        return read(data, true);
+    }
+
+    private static Result read(ByteBuffer data, boolean isIndexing) {
+        int size = data.remaining();
+        int base = data.position();
+        int chunkCount = size < PARALLEL_THRESHOLD ? 1 : Runtime.getRuntime().availableProcessors();
+
+        int[] bounds = new int[chunkCount + 1];
+        bounds[chunkCount] = size;
+        for (int i = 1; i < chunkCount; i++) {
+            int pos = Math.max((int) ((long) size * i / chunkCount), bounds[i - 1]);
+            while (pos < size && data.get(base + pos - 1) != '\n') {
+                pos++;
+            }
+            bounds[i] = pos;
+        }
+
+        List<Chunk> chunks = IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(i -> decodeChunk(data, base + bounds[i], bounds[i + 1] - bounds[i], isIndexing))
+                .collect(Collectors.toList());
+
+        int total = 0;
+        for (Chunk chunk : chunks) {
+            total += isIndexing ? chunk.indexed : chunk.tasks.size();
+        }
+        ArrayList<Task> tasks = new ArrayList<>(isIndexing ? 0 : total);
+        int[] starts = new int[isIndexing ? total : 0];
+        int[] ends = new int[starts.length];
+        long[] ids = new long[starts.length];
+        int indexed = 0;
+        List<String> problems = new ArrayList<>();
+        int linesBefore = 0;
+        long seq = 0;
+        long nextId = 0;
+        for (Chunk chunk : chunks) {
+            tasks.addAll(chunk.tasks);
+            System.arraycopy(chunk.starts, 0, starts, indexed, chunk.indexed);
+            System.arraycopy(chunk.ends, 0, ends, indexed, chunk.indexed);
+            System.arraycopy(chunk.ids, 0, ids, indexed, chunk.indexed);
+            indexed += chunk.indexed;
+            for (int i = 0; i < chunk.badLines.size(); i++) {
+                problems.add("line " + (linesBefore + chunk.badLines.get(i)) + ": " + chunk.reasons.get(i));
+            }
+            linesBefore += chunk.lineCount;
+            seq = Math.max(seq, chunk.seq);
+            nextId = Math.max(nextId, chunk.nextId);
+        }
+        if (isIndexing) {
+            return new Result(new LazyList(data.array(), starts, ends, ids), problems, seq, nextId);
+        }
+        return new Result(tasks, problems, seq, nextId);
+    }
+
+    private static Chunk decodeChunk(ByteBuffer data, int offset, int length, boolean isIndexing) {
+        byte[] bytes;
+        int start;
+        if (data.hasArray()) {
+            bytes = data.array();
+            start = data.arrayOffset() + offset;
+        } else {
+            bytes = new byte[length];
+            data.get(offset, bytes);
+            start = 0;
+        }
+        int limit = start + length;
+
+        Chunk chunk = new Chunk();
+        while (start < limit) {
+            int end = start;
+            while (end < limit && bytes[end] != '\n') {
+                end++;
+            }
+            chunk.lineCount++;
+
+            int lineEnd = end > start && bytes[end - 1] == '\r' ? end - 1 : end;
+            if (lineEnd > start && bytes[start] == '#') {
+                readHeader(bytes, start, lineEnd, chunk);
+            } else if (!isBlank(bytes, start, lineEnd)) {
+                if (!parseLine(bytes, start, lineEnd, chunk)) {
+                    chunk.badLines.add(chunk.lineCount);
+                    chunk.reasons.add(chunk.reason);
+                } else if (isIndexing) {
+                    chunk.addLine(start, lineEnd, chunk.id);
+                } else {
+                    chunk.tasks.add(createTask(bytes, chunk));
+                }
+            }
+            start = end + 1;
+        }
+        return chunk;
+    }
+
+    private static void readHeader(byte[] bytes, int start, int end, Chunk chunk) {
+        String line = new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        if (line.startsWith(JOURNAL_HEADER)) {
+            chunk.seq = parseHeaderNumber(line.substring(JOURNAL_HEADER.length()));
+        } else if (line.startsWith(NEXT_ID_HEADER)) {
+            chunk.nextId = parseHeaderNumber(line.substring(NEXT_ID_HEADER.length()));
+        }
+    }
+
+    /**
+     * Checks one line and leaves its fields in the chunk, without creating the task. The type
+     * and done fields are the first two fields after the optional ID; the date-time fields are
+     * taken from the end of the line, so the description may itself contain {@code |}. If the
+     * line is invalid, false is returned and the reason is left in the chunk.
+     */
+    private static boolean parseLine(byte[] bytes, int start, int end, Chunk chunk) {
+        long id = 0;
+        int idEnd = indexOf(bytes, start, end, (byte) '|');
+        if (idEnd >= 0) {
+            id = parseId(bytes, skipSpaces(bytes, start, idEnd), trimSpaces(bytes, start, idEnd));
+            if (id > 0) {
+                start = idEnd + 1;
+            }
+        }
+
+        int first = indexOf(bytes, start, end, (byte) '|');
+        int second = first < 0 ? -1 : indexOf(bytes, first + 1, end, (byte) '|');
+        if (second < 0) {
+            chunk.reason = "expected at least 3 fields";
+            return false;
+        }
+
+        int typeStart = skipSpaces(bytes, start, first);
+        int typeEnd = trimSpaces(bytes, typeStart, first);
+        if (typeEnd - typeStart != 1) {
+            chunk.reason = "unknown task type";
+            return false;
+        }
+        byte type = bytes[typeStart];
+
+        int doneStart = skipSpaces(bytes, first + 1, second);
+        int doneEnd = trimSpaces(bytes, doneStart, second);
+        boolean isDone = doneEnd - doneStart == 1 && bytes[doneStart] == '1';
+
+        int descStart = second + 1;
+        int descEnd = end;
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+
+        if (type == 'D' || type == 'E') {
+            int last = lastIndexOf(bytes, descStart, end, (byte) '|');
+            if (last < 0) {
+                chunk.reason = "missing date";
+                return false;
+            }
+            from = parseDateTime(bytes, last + 1, end);
+            descEnd = last;
+
+            if (type == 'E') {
+                int previous = lastIndexOf(bytes, descStart, last, (byte) '|');
+                if (previous < 0) {
+                    chunk.reason = "missing end date";
+                    return false;
+                }
+                to = from;
+                from = parseDateTime(bytes, previous + 1, last);
+                descEnd = previous;
+            }
+            if (from == null || (type == 'E' && to == null)) {
+                chunk.reason = "invalid date";
+                return false;
+            }
+        } else if (type != 'T') {
+            chunk.reason = "unknown task type";
+            return false;
+        }
+
+        chunk.id = id;
+        chunk.type = type;
+        chunk.isDone = isDone;
+        chunk.descStart = skipSpaces(bytes, descStart, descEnd);
+        chunk.descEnd = trimSpaces(bytes, chunk.descStart, descEnd);
+        chunk.from = from;
+        chunk.to = to;
+        return true;
+    }
+
+    /**
+     * Returns the task from the fields of the line last parsed into the chunk.
+     */
+    private static Task createTask(byte[] bytes, Chunk chunk) {
+        String desc = new String(bytes, chunk.descStart, chunk.descEnd - chunk.descStart, StandardCharsets.UTF_8);
+        Task t;
+        if (chunk.type == 'T') {
+            t = new Todo(desc);
+        } else if (chunk.type == 'D') {
+            t = new Deadline(desc, chunk.from);
+        } else {
+            t = new Event(desc, chunk.from, chunk.to);
+        }
+        if (chunk.isDone) {
+            t.markDone();
+        }
+        t.setId(chunk.id);
+        return t;
+    }
+
+    /**
+     * Returns the ID written in the given field, or 0 if the field is not a positive number.
+     */
+    private static long parseId(byte[] bytes, int start, int end) {
+        if (start == end || end - start > 18) {
+            return 0;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return 0;
+            }
+            value = value * 10 + (bytes[i] - '0');
+        }
+        return value;
+    }
+
+    private static LocalDateTime parseDateTime(byte[] bytes, int start, int end) {
+        start = skipSpaces(bytes, start, end);
+        end = trimSpaces(bytes, start, end);
+        return DateTimeParser.parseIso(bytes, start, end);
+    }
+
+    private static long parseHeaderNumber(String text) {
+        long value = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return 0;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] bytes, int start, int end, byte b) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] bytes, int start, int end, byte b) {
+        for (int i = end - 1; i >= start; i--) {
+            if (bytes[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(byte[] bytes, int start, int end) {
+        return skipSpaces(bytes, start, end) == end;
+    }
+
+    private static int skipSpaces(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] == ' ' || bytes[start] == '\t')) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimSpaces(byte[] bytes, int start, int end) {
+        while (end > start && (bytes[end - 1] == ' ' || bytes[end - 1] == '\t')) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,105 @@
+package kingsim;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * Represents an index of deadlines and events by time, used to answer
+ * {@code due before}, {@code on} and {@code between} without scanning the whole list.
+ * Deadlines are kept sorted by due time and events in an {@link IntervalTree}.
+ */
+class TimeIndex {
+    private static final Comparator<Deadline> BY_DUE_TIME =
+            Comparator.comparing(Deadline::getBy).thenComparingLong(Task::getSequence);
+
+    private final TreeSet<Deadline> deadlines = new TreeSet<>(BY_DUE_TIME);
+    private final IntervalTree events = new IntervalTree();
+
+    /**
+     * Adds a task to the index. Tasks without times are ignored.
+     *
+     * @param task Task that was added to the list.
+     */
+    void add(Task task) {
+        if (task instanceof Deadline) {
+            deadlines.add((Deadline) task);
+        } else if (task instanceof Event) {
+            events.add((Event) task);
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task Task that was removed from the list.
+     */
+    void remove(Task task) {
+        if (task instanceof Deadline) {
+            deadlines.remove(task);
+        } else if (task instanceof Event) {
+            events.remove((Event) task);
+        }
+    }
+
+    /**
+     * Returns the deadlines due strictly before the given time, earliest first.
+     *
+     * @param time Time the deadlines must be due before.
+     * @return Matching deadlines.
+     */
+    ArrayList<Task> dueBefore(LocalDateTime time) {
+        ArrayList<Task> matches = new ArrayList<>();
+        for (Deadline d : deadlines) {
+            if (!d.getBy().isBefore(time)) {
+                break;
+            }
+            matches.add(d);
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the deadlines due within the range and the events overlapping it,
+     * ordered by due or start time.
+     *
+     * @param from Start of the range, inclusive.
+     * @param to End of the range, inclusive.
+     * @return Matching deadlines and events.
+     */
+    ArrayList<Task> between(LocalDateTime from, LocalDateTime to) {
+        Deadline earliest = new Deadline("", from);
+        earliest.setSequence(Long.MIN_VALUE);
+
+        ArrayList<Task> dueInRange = new ArrayList<>();
+        for (Deadline d : deadlines.tailSet(earliest, true)) {
+            if (d.getBy().isAfter(to)) {
+                break;
+            }
+            dueInRange.add(d);
+        }
+        ArrayList<Event> overlapping = events.overlapping(toSeconds(from), toSeconds(to));
+
+        ArrayList<Task> matches = new ArrayList<>(dueInRange.size() + overlapping.size());
+        int i = 0;
+        int j = 0;
+        while (i < dueInRange.size() || j < overlapping.size()) {
+            boolean takeDeadline = j == overlapping.size() || (i < dueInRange.size()
+                    && !((Deadline) dueInRange.get(i)).getBy().isAfter(overlapping.get(j).getFrom()));
+            matches.add(takeDeadline ? dueInRange.get(i++) : overlapping.get(j++));
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the time as seconds since the epoch, treating it as UTC.
+     *
+     * @param time Time to convert.
+     * @return Epoch seconds.
+     */
+    static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
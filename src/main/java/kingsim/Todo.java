@@ -15,7 +15,7 @@ public class Todo extends Task {
     }
 
     @Override
-    public String toString() {
-        return "[T] " + super.toString();
+    String getTypeTag() {
+        return "[T] ";
     }
 }
\ No newline at end of file
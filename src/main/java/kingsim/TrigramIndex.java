@@ -0,0 +1,99 @@
+package kingsim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Represents an index from every three-character substring (trigram) of the lower-case
+ * task descriptions to the tasks containing it.
+ *
+ * <p>Any description containing a keyword also contains all of the keyword's trigrams,
+ * so the tasks under the keyword's rarest trigram are the only candidates that need to
+ * be checked with {@link String#contains}. Each list of tasks is kept in list order,
+ * which lets a removed task be found by binary search on its sequence number.
+ * Keywords shorter than three characters are left to the caller.
+ */
+class TrigramIndex implements SearchIndex {
+    private static final int GRAM = 3;
+
+    private final HashMap<Long, ArrayList<Task>> postings = new HashMap<>();
+
+    @Override
+    public void add(Task task) {
+        for (long trigram : trigrams(task.getLowerDescription())) {
+            postings.computeIfAbsent(trigram, k -> new ArrayList<>()).add(task);
+        }
+    }
+
+    @Override
+    public void remove(Task task) {
+        for (long trigram : trigrams(task.getLowerDescription())) {
+            ArrayList<Task> tasks = postings.get(trigram);
+            if (tasks == null) {
+                continue;
+            }
+            int i = indexOf(tasks, task.getSequence());
+            if (i >= 0) {
+                tasks.remove(i);
+            }
+            if (tasks.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    @Override
+    public ArrayList<Task> find(String lowerKeyword) {
+        if (lowerKeyword.length() < GRAM) {
+            return null;
+        }
+
+        ArrayList<Task> candidates = null;
+        for (long trigram : trigrams(lowerKeyword)) {
+            ArrayList<Task> tasks = postings.get(trigram);
+            if (tasks == null) {
+                return new ArrayList<>();
+            }
+            if (candidates == null || tasks.size() < candidates.size()) {
+                candidates = tasks;
+            }
+        }
+
+        ArrayList<Task> matches = new ArrayList<>();
+        for (Task task : candidates) {
+            if (task.getLowerDescription().contains(lowerKeyword)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the distinct trigrams of the text, each packed into a long.
+     */
+    private static HashSet<Long> trigrams(String text) {
+        HashSet<Long> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            trigrams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return trigrams;
+    }
+
+    private static int indexOf(ArrayList<Task> tasks, long sequence) {
+        int low = 0;
+        int high = tasks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midSequence = tasks.get(mid).getSequence();
+            if (midSequence < sequence) {
+                low = mid + 1;
+            } else if (midSequence > sequence) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,29 +1,115 @@
 package kingsim;
 
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * Handles interactions with the user.
+ * Commands are read from and output is written to the console by default. In batch mode,
+ * commands come from a file and output is buffered and only flushed when the UI is closed.
+ * A UI can also be made over any pair of streams, such as those of a network connection,
+ * in which case each reply is flushed as a whole just before the next command is read.
  */
 public class Ui {
     private static final String LINE = "____________________________________________________________";
-    private final Scanner scanner;
+    private static final int MAX_PROBLEMS_SHOWN = 5;
+    private static final int BATCH_BUFFER_SIZE = 1 << 16;
+    private static final int STREAM_BUFFER_SIZE = 1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final boolean isFlushedBeforeRead;
+    private final StringBuilder lineBuilder = new StringBuilder(128);
+    private char[] lineChars = new char[128];
 
     /**
-     * Creates a UI object for reading user input and showing output.
+     * Creates a UI object for reading user input and showing output on the console.
+     * Output is flushed after every line.
      */
     public Ui() {
-        scanner = new Scanner(System.in);
+        this(new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset())),
+                new PrintWriter(new OutputStreamWriter(System.out, Charset.defaultCharset()), true));
+    }
+
+    /**
+     * Creates a UI object using the given input and output.
+     *
+     * @param in Source of user commands.
+     * @param out Destination of output.
+     */
+    public Ui(BufferedReader in, PrintWriter out) {
+        this(in, out, false);
+    }
+
+    private Ui(BufferedReader in, PrintWriter out, boolean isFlushedBeforeRead) {
+        this.in = in;
+        this.out = out;
+        this.isFlushedBeforeRead = isFlushedBeforeRead;
+    }
+
+    /**
+     * Returns a UI object that reads commands from and writes output to the given streams
+     * in UTF-8. Output is flushed before each command is read, so a reply is sent in one go.
+     *
+     * @param in Source of user commands.
+     * @param out Destination of output.
+     * @return UI object over the streams.
+     */
+    public static Ui forStreams(InputStream in, OutputStream out) {
+        return new Ui(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), STREAM_BUFFER_SIZE),
+                new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)), true);
+    }
+
+    /**
+     * Returns a UI object for batch mode, which reads commands from the given file,
+     * or from standard input if the file is {@code -}, and buffers all output.
+     *
+     * @param file Path to the file of commands.
+     * @return UI object for batch mode.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static Ui forBatch(String file) throws IOException {
+        BufferedReader in = file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset()),
+                        BATCH_BUFFER_SIZE)
+                : Files.newBufferedReader(Paths.get(file), Charset.defaultCharset());
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, Charset.defaultCharset()), BATCH_BUFFER_SIZE));
+        return new Ui(in, out);
     }
 
     /**
      * Returns the next command entered by the user.
      *
-     * @return User command after trimming surrounding whitespace.
+     * @return User command after trimming surrounding whitespace,
+     *     or null if there are no more commands.
      */
     public String readCommand() {
-        String input = scanner.nextLine().trim();
+        if (isFlushedBeforeRead) {
+            out.flush();
+        }
+        String line;
+        try {
+            line = in.readLine();
+        } catch (IOException e) {
+            // Input that cannot be read is treated as its end
+            return null;
+        }
+        if (line == null) {
+            return null;
+        }
+        String input = line.trim();
 
         if (input.contains(LINE)) {
             input = input.substring(0, input.indexOf(LINE)).trim();
@@ -36,19 +122,53 @@ public class Ui {
      * Shows the welcome message.
      */
     public void showWelcome() {
-        System.out.println(LINE);
-        System.out.println("Hello! I'm KingSIM");
-        System.out.println("What can I do for you?");
-        System.out.println(LINE);
+        out.println(LINE);
+        out.println("Hello! I'm KingSIM");
+        out.println("What can I do for you?");
+        out.println(LINE);
+    }
+
+    /**
+     * Shows the problems found while loading saved tasks, if there are any.
+     *
+     * @param problems Descriptions of the problems.
+     */
+    public void showLoadProblems(List<String> problems) {
+        if (problems.isEmpty()) {
+            return;
+        }
+
+        out.println(LINE);
+        out.println("Some saved data could not be loaded and was skipped:");
+        for (int i = 0; i < problems.size() && i < MAX_PROBLEMS_SHOWN; i++) {
+            out.println("  " + problems.get(i));
+        }
+        if (problems.size() > MAX_PROBLEMS_SHOWN) {
+            out.println("  ...and " + (problems.size() - MAX_PROBLEMS_SHOWN) + " more.");
+        }
+        out.println(LINE);
+    }
+
+    /**
+     * Shows the command latencies, error counts and bytes written so far.
+     *
+     * @param lines Lines describing the metrics.
+     */
+    public void showStats(List<String> lines) {
+        out.println(LINE);
+        for (String line : lines) {
+            out.println(line);
+        }
+        out.println(LINE);
     }
 
     /**
      * Shows the goodbye message.
      */
     public void showBye() {
-        System.out.println(LINE);
-        System.out.println("Bye. Hope to see you again soon!");
-        System.out.println(LINE);
+        out.println(LINE);
+        out.println("Bye. Hope to see you again soon!");
+        out.println(LINE);
     }
 
     /**
@@ -57,9 +177,9 @@ public class Ui {
      * @param message Message to be shown.
      */
     public void showError(String message) {
-        System.out.println(LINE);
-        System.out.println(message);
-        System.out.println(LINE);
+        out.println(LINE);
+        out.println(message);
+        out.println(LINE);
     }
 
     /**
@@ -69,11 +189,24 @@ public class Ui {
      * @param taskCount Current number of tasks in the list.
      */
     public void showAddTask(Task task, int taskCount) {
-        System.out.println(LINE);
-        System.out.println("Got it. I've added this task:");
-        System.out.println("  " + task);
-        System.out.println("Now you have " + taskCount + " task" + (taskCount == 1 ? "" : "s") + " in the list.");
-        System.out.println(LINE);
+        out.println(LINE);
+        out.println("Got it. I've added this task:");
+        out.println("  " + task);
+        out.println("Now you have " + taskCount + " task" + (taskCount == 1 ? "" : "s") + " in the list.");
+        out.println(LINE);
+    }
+
+    /**
+     * Shows the message after switching to a task list.
+     *
+     * @param name Name of the list now in use.
+     * @param taskCount Number of tasks in the list.
+     */
+    public void showUseList(String name, int taskCount) {
+        out.println(LINE);
+        out.println("Now using the list " + name + ", with " + taskCount + " task"
+                + (taskCount == 1 ? "" : "s") + ".");
+        out.println(LINE);
     }
 
     /**
@@ -81,21 +214,48 @@ public class Ui {
      *
      * @param tasks Tasks to be shown.
      */
-    public void showList(ArrayList<Task> tasks) {
-        System.out.println(LINE);
-
+    public void showList(List<Task> tasks) {
         if (tasks.isEmpty()) {
-            System.out.println("Your list is empty for now.");
-            System.out.println("Add one with: todo <task>");
-            System.out.println(LINE);
+            showEmptyList();
             return;
         }
 
-        System.out.println("Here are the tasks in your list:");
-        for (int i = 0; i < tasks.size(); i++) {
-            System.out.println((i + 1) + ". " + tasks.get(i));
+        out.println(LINE);
+        out.println("Here are the tasks in your list:");
+        writeTasks(tasks, 1, false);
+        out.println(LINE);
+    }
+
+    /**
+     * Shows all tasks in the list together with their stable IDs.
+     *
+     * @param tasks Tasks to be shown.
+     */
+    public void showListWithIds(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            showEmptyList();
+            return;
         }
-        System.out.println(LINE);
+
+        out.println(LINE);
+        out.println("Here are the tasks in your list, with their IDs:");
+        writeTasks(tasks, 1, true);
+        out.println(LINE);
+    }
+
+    /**
+     * Shows a consecutive part of the task list, numbered by position in the whole list.
+     *
+     * @param tasks Tasks in the part to be shown.
+     * @param firstNumber Task number of the first task in the part.
+     * @param total Number of tasks in the whole list.
+     */
+    public void showListSlice(List<Task> tasks, int firstNumber, int total) {
+        out.println(LINE);
+        out.println("Here are tasks " + firstNumber + "-" + (firstNumber + tasks.size() - 1)
+                + " of " + total + " in your list:");
+        writeTasks(tasks, firstNumber, false);
+        out.println(LINE);
     }
 
     /**
@@ -103,20 +263,64 @@ public class Ui {
      *
      * @param tasks Matching tasks to be shown.
      */
-    public void showFindResults(ArrayList<Task> tasks) {
-        System.out.println(LINE);
+    public void showFindResults(List<Task> tasks) {
+        out.println(LINE);
 
         if (tasks.isEmpty()) {
-            System.out.println("No matching tasks found.");
-            System.out.println(LINE);
+            out.println("No matching tasks found.");
+            out.println(LINE);
             return;
         }
 
-        System.out.println("Here are the matching tasks in your list:");
-        for (int i = 0; i < tasks.size(); i++) {
-            System.out.println((i + 1) + ". " + tasks.get(i));
+        out.println("Here are the matching tasks in your list:");
+        writeTasks(tasks, 1, false);
+        out.println(LINE);
+    }
+
+    private void showEmptyList() {
+        out.println(LINE);
+        out.println("Your list is empty for now.");
+        out.println("Add one with: todo <task>");
+        out.println(LINE);
+    }
+
+    /**
+     * Writes one numbered line per task. Every line is built in the same builder and
+     * copied into the same buffer before being written, so no string is made per task.
+     */
+    private void writeTasks(List<Task> tasks, int firstNumber, boolean showIds) {
+        int number = firstNumber;
+        for (Task task : tasks) {
+            lineBuilder.setLength(0);
+            lineBuilder.append(number++).append(". ");
+            if (showIds) {
+                lineBuilder.append('#').append(task.getId()).append(' ');
+            }
+            task.appendTo(lineBuilder);
+            writeLine();
         }
-        System.out.println(LINE);
+    }
+
+    /**
+     * Writes one indented line per task, in the same way as {@link #writeTasks}.
+     */
+    private void writeIndentedTasks(List<Task> tasks) {
+        for (Task task : tasks) {
+            lineBuilder.setLength(0);
+            lineBuilder.append("  ");
+            task.appendTo(lineBuilder);
+            writeLine();
+        }
+    }
+
+    private void writeLine() {
+        lineBuilder.append(LINE_SEPARATOR);
+        int length = lineBuilder.length();
+        if (lineChars.length < length) {
+            lineChars = new char[Math.max(length, lineChars.length * 2)];
+        }
+        lineBuilder.getChars(0, length, lineChars, 0);
+        out.write(lineChars, 0, length);
     }
 
     /**
@@ -126,10 +330,23 @@ public class Ui {
      * @param task Task affected.
      */
     public void showMarkMessage(String message, Task task) {
-        System.out.println(LINE);
-        System.out.println(message);
-        System.out.println("  " + task);
-        System.out.println(LINE);
+        out.println(LINE);
+        out.println(message);
+        out.println("  " + task);
+        out.println(LINE);
+    }
+
+    /**
+     * Shows the message after marking or unmarking several tasks at once.
+     *
+     * @param message Message to be shown.
+     * @param tasks Tasks affected.
+     */
+    public void showMarkMessage(String message, List<Task> tasks) {
+        out.println(LINE);
+        out.println(message);
+        writeIndentedTasks(tasks);
+        out.println(LINE);
     }
 
     /**
@@ -139,17 +356,37 @@ public class Ui {
      * @param taskCount Current number of tasks in the list.
      */
     public void showDeleteMessage(Task task, int taskCount) {
-        System.out.println(LINE);
-        System.out.println("Noted. I've removed this task:");
-        System.out.println("  " + task);
-        System.out.println("Now you have " + taskCount + " tasks in the list.");
-        System.out.println(LINE);
+        out.println(LINE);
+        out.println("Noted. I've removed this task:");
+        out.println("  " + task);
+        out.println("Now you have " + taskCount + " tasks in the list.");
+        out.println(LINE);
+    }
+
+    /**
+     * Shows the message after deleting several tasks at once.
+     *
+     * @param tasks Tasks that were removed.
+     * @param taskCount Current number of tasks in the list.
+     */
+    public void showDeleteMessage(List<Task> tasks, int taskCount) {
+        out.println(LINE);
+        out.println(tasks.size() == 1 ? "Noted. I've removed this task:"
+                : "Noted. I've removed these " + tasks.size() + " tasks:");
+        writeIndentedTasks(tasks);
+        out.println("Now you have " + taskCount + " tasks in the list.");
+        out.println(LINE);
     }
 
     /**
-     * Closes the scanner used for reading input.
+     * Writes out any buffered output and closes the input.
      */
     public void close() {
-        scanner.close();
+        out.flush();
+        try {
+            in.close();
+        } catch (IOException e) {
+            // Nothing more is read, so the input can be left as it is
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package kingsim;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Represents an inverted index from the lower-case words of task descriptions
+ * to the tasks containing them.
+ *
+ * <p>A keyword without whitespace is contained in a description exactly when it is
+ * contained in one of its words, and a word contains the keyword exactly when one of
+ * the word's suffixes starts with it. The index therefore also keeps every suffix of
+ * every distinct word in sorted order, so {@link #find(String)} finds the words
+ * containing the keyword by walking the suffixes that start with it. A search costs a
+ * lookup in the sorted suffixes plus work for the matching words and their tasks, not
+ * for every word or task. Keywords that contain whitespace are left to the caller.
+ */
+class WordIndex implements SearchIndex {
+    private final HashMap<String, LinkedHashSet<Task>> postings = new HashMap<>();
+    private final TreeMap<String, HashSet<String>> suffixes = new TreeMap<>();
+
+    @Override
+    public void add(Task task) {
+        for (String word : words(task)) {
+            LinkedHashSet<Task> tasks = postings.get(word);
+            if (tasks == null) {
+                tasks = new LinkedHashSet<>();
+                postings.put(word, tasks);
+                for (int i = 0; i < word.length(); i++) {
+                    suffixes.computeIfAbsent(word.substring(i), k -> new HashSet<>()).add(word);
+                }
+            }
+            tasks.add(task);
+        }
+    }
+
+    @Override
+    public void remove(Task task) {
+        for (String word : words(task)) {
+            LinkedHashSet<Task> tasks = postings.get(word);
+            if (tasks != null) {
+                tasks.remove(task);
+                if (tasks.isEmpty()) {
+                    postings.remove(word);
+                    removeSuffixes(word);
+                }
+            }
+        }
+    }
+
+    @Override
+    public ArrayList<Task> find(String lowerKeyword) {
+        for (int i = 0; i < lowerKeyword.length(); i++) {
+            if (Character.isWhitespace(lowerKeyword.charAt(i))) {
+                return null;
+            }
+        }
+
+        HashSet<String> matchingWords = new HashSet<>();
+        ArrayList<LinkedHashSet<Task>> hits = new ArrayList<>();
+        for (Map.Entry<String, HashSet<String>> entry : suffixes.tailMap(lowerKeyword).entrySet()) {
+            if (!entry.getKey().startsWith(lowerKeyword)) {
+                break;
+            }
+            for (String word : entry.getValue()) {
+                if (matchingWords.add(word)) {
+                    hits.add(postings.get(word));
+                }
+            }
+        }
+
+        if (hits.size() == 1) {
+            return new ArrayList<>(hits.get(0));
+        }
+        LinkedHashSet<Task> union = new LinkedHashSet<>();
+        for (LinkedHashSet<Task> tasks : hits) {
+            union.addAll(tasks);
+        }
+        ArrayList<Task> matches = new ArrayList<>(union);
+        matches.sort(Comparator.comparingLong(Task::getSequence));
+        return matches;
+    }
+
+    private void removeSuffixes(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            String suffix = word.substring(i);
+            HashSet<String> words = suffixes.get(suffix);
+            if (words != null) {
+                words.remove(word);
+                if (words.isEmpty()) {
+                    suffixes.remove(suffix);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the distinct whitespace-separated words of the task's lower-case description.
+     */
+    private static LinkedHashSet<String> words(Task task) {
+        String text = task.getLowerDescription();
+        LinkedHashSet<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isSpace = i == text.length() || Character.isWhitespace(text.charAt(i));
+            if (isSpace && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            } else if (!isSpace && start < 0) {
+                start = i;
+            }
+        }
+        return words;
+    }
+}
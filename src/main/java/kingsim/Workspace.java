@@ -0,0 +1,237 @@
+package kingsim;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Represents the named task lists in a data directory, each kept in its own data file
+ * named after the list, such as {@code work.txt}.
+ *
+ * <p>A list is loaded the first time it is opened and then kept in a cache, so switching
+ * back to it is instant. The cache is bounded by weight rather than by the number of
+ * lists: each list weighs one more than its number of tasks. Once the total weight goes
+ * past the limit, the least recently opened lists are saved if they have unsaved changes,
+ * closed and dropped. The list opened last is always kept, however much it weighs. Memory
+ * therefore depends on the limit, not on how many lists exist on disk.
+ */
+class Workspace {
+    /** Longest allowed list name. */
+    static final int MAX_NAME_LENGTH = 32;
+
+    /**
+     * Represents a list that is loaded and open.
+     */
+    static class OpenList {
+        private final Storage storage;
+        private final TaskList tasks;
+        private boolean hasUnsavedChanges;
+
+        private OpenList(Storage storage, TaskList tasks) {
+            this.storage = storage;
+            this.tasks = tasks;
+        }
+
+        Storage getStorage() {
+            return storage;
+        }
+
+        TaskList getTasks() {
+            return tasks;
+        }
+
+        /**
+         * Returns whether the list has changes that have not been saved yet, such as
+         * those made in batch mode between periodic saves.
+         *
+         * @return True if the list must be saved before it is closed.
+         */
+        boolean hasUnsavedChanges() {
+            return hasUnsavedChanges;
+        }
+
+        void setUnsavedChanges(boolean hasUnsavedChanges) {
+            this.hasUnsavedChanges = hasUnsavedChanges;
+        }
+
+        private long weight() {
+            return tasks.size() + 1L;
+        }
+
+        /**
+         * Saves unsaved changes and finishes pending storage work.
+         */
+        private void close() throws IOException {
+            if (hasUnsavedChanges) {
+                storage.save(tasks.getAll(), tasks.getNextId());
+                hasUnsavedChanges = false;
+            }
+            storage.close();
+        }
+    }
+
+    private final Path directory;
+    private final Options options;
+    private final long maxWeight;
+    private final LinkedHashMap<String, OpenList> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final HashMap<String, Path> files = new HashMap<>();
+    private IOException failure;
+    private long closedBytesWritten;
+
+    /**
+     * Creates a workspace over the lists in the given directory.
+     *
+     * @param directory Directory holding one data file per list.
+     * @param options Options choosing how lists are kept and persisted.
+     * @param maxWeight Most total weight of the lists kept open.
+     */
+    Workspace(Path directory, Options options, long maxWeight) {
+        this.directory = directory;
+        this.options = options;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Returns whether the given name can be used for a list: it must have at most
+     * {@link #MAX_NAME_LENGTH} characters, each a lower-case letter, digit, - or _.
+     *
+     * @param name Name to check.
+     * @return True if the name is valid.
+     */
+    static boolean isValidName(String name) {
+        if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9') && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the list with the given name is loaded and open.
+     *
+     * @param name Name of the list.
+     * @return True if the list is open.
+     */
+    boolean isOpen(String name) {
+        return cache.containsKey(name);
+    }
+
+    /**
+     * Returns the list with the given name, loading it if it is not open. A list that does
+     * not exist yet starts empty and is created when it is first saved. Opening a list may
+     * close others to stay within the weight limit; if saving one of them fails, it is kept
+     * open and the failure is reported by {@link #takeFailure()}.
+     *
+     * @param name Valid name of the list.
+     * @return Open list.
+     */
+    OpenList open(String name) {
+        OpenList list = cache.get(name);
+        if (list == null) {
+            Path file = files.getOrDefault(name, directory.resolve(name + ".txt"));
+            Storage storage = new Storage(file.toString(), options);
+            TaskList tasks = options.getBacking().createTaskList(storage.load(), options.getIndexType());
+            tasks.reserveIdsBelow(storage.getNextId());
+            list = new OpenList(storage, tasks);
+            cache.put(name, list);
+        }
+        evict(list);
+        return list;
+    }
+
+    /**
+     * Opens the list with the given name, kept in the given data file rather than in the
+     * file named after the list. Later calls to {@link #open(String)} with the same name
+     * return this list, reloading it from the same file if it was closed.
+     *
+     * @param name Name of the list.
+     * @param file Data file of the list, used exactly as given.
+     * @return Open list.
+     */
+    OpenList open(String name, Path file) {
+        files.put(name, file);
+        return open(name);
+    }
+
+    /**
+     * Returns and clears the failure to save a list closed to make room, if any.
+     *
+     * @return Failure of the latest save made on eviction, or null if none happened.
+     */
+    IOException takeFailure() {
+        IOException e = failure;
+        failure = null;
+        return e;
+    }
+
+    /**
+     * Returns the number of bytes written to disk for every list opened so far.
+     *
+     * @return Total bytes written.
+     */
+    long getBytesWritten() {
+        long total = closedBytesWritten;
+        for (OpenList list : cache.values()) {
+            total += list.storage.getBytesWritten();
+        }
+        return total;
+    }
+
+    /**
+     * Saves and closes every open list.
+     *
+     * @throws IOException If any list cannot be saved; the other lists are still closed.
+     */
+    void close() throws IOException {
+        IOException firstFailure = null;
+        for (OpenList list : cache.values()) {
+            try {
+                list.close();
+            } catch (IOException e) {
+                if (firstFailure == null) {
+                    firstFailure = e;
+                }
+            }
+        }
+        cache.clear();
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    /**
+     * Closes the least recently opened lists, other than the given one, until the open
+     * lists weigh no more than the limit.
+     */
+    private void evict(OpenList keep) {
+        long totalWeight = 0;
+        for (OpenList list : cache.values()) {
+            totalWeight += list.weight();
+        }
+
+        Iterator<OpenList> lists = cache.values().iterator();
+        while (totalWeight > maxWeight && lists.hasNext()) {
+            OpenList list = lists.next();
+            if (list == keep) {
+                continue;
+            }
+            long weight = list.weight();
+            try {
+                list.close();
+            } catch (IOException e) {
+                failure = e;
+                continue;
+            }
+            lists.remove();
+            closedBytesWritten += list.storage.getBytesWritten();
+            totalWeight -= weight;
+        }
+    }
+}
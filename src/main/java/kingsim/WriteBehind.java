@@ -0,0 +1,241 @@
+package kingsim;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects pending writes for {@link Storage} and flushes them off the command thread.
+ * Journal entries are queued in order. A full snapshot is only marked as due: the tasks
+ * are copied when the flush takes them, while holding the lock the command loop holds
+ * when it changes them, so a command costs no copy however many follow before the flush.
+ * A failed flush keeps its writes pending and is reported through {@link #takeFailure()}.
+ */
+class WriteBehind {
+    /**
+     * Copies and writes batches of pending work to disk.
+     */
+    interface Sink {
+        /**
+         * Returns a copy of the tasks to write in full. Called while holding the lock, so
+         * the tasks do not change while they are copied.
+         *
+         * @return Copy of the tasks, with what else is needed to write them.
+         */
+        Snapshot takeSnapshot();
+
+        void flush(List<String> entries, Snapshot snapshot) throws IOException;
+    }
+
+    /**
+     * Represents a copy of the tasks to write, with the next ID to give out and the file
+     * format to write them in, all as of when the copy was taken.
+     */
+    static class Snapshot {
+        final List<Task> tasks;
+        final long nextId;
+        final FileFormat format;
+
+        Snapshot(List<Task> tasks, long nextId, FileFormat format) {
+            this.tasks = tasks;
+            this.nextId = nextId;
+            this.format = format;
+        }
+    }
+
+    private final Sink sink;
+    private final long intervalMillis;
+    private final Object lock;
+    private ArrayList<String> entries = new ArrayList<>();
+    private boolean isSnapshotDue;
+    private boolean isFlushing;
+    private boolean isFailed;
+    private boolean isClosing;
+    private IOException failure;
+
+    /**
+     * Creates a write-behind queue.
+     *
+     * @param sink Destination of flushed writes.
+     * @param intervalMillis Time to let writes gather before each group commit,
+     *     or a negative value to flush only when {@link #close()} is called.
+     * @param lock Lock held by whoever changes the tasks, and by a flush while it copies them.
+     */
+    WriteBehind(Sink sink, long intervalMillis, Object lock) {
+        this.sink = sink;
+        this.intervalMillis = intervalMillis;
+        this.lock = lock;
+        if (intervalMillis >= 0) {
+            Thread flusher = new Thread(this::runFlusher, "kingsim-write-behind");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Queues journal entries to be appended.
+     *
+     * @param newEntries Entries prefixed with their sequence numbers.
+     */
+    synchronized void submitEntries(List<String> newEntries) {
+        entries.addAll(newEntries);
+        isFailed = false;
+        notifyAll();
+    }
+
+    /**
+     * Marks the tasks as changed, so that the next flush copies and writes them in full.
+     */
+    synchronized void submitSnapshot() {
+        isSnapshotDue = true;
+        isFailed = false;
+        notifyAll();
+    }
+
+    /**
+     * Returns and clears the failure of the most recent flush, if any.
+     *
+     * @return Failure of a deferred write, or null if none happened.
+     */
+    synchronized IOException takeFailure() {
+        IOException e = failure;
+        failure = null;
+        return e;
+    }
+
+    /**
+     * Writes everything still pending on the calling thread, after any flush
+     * already in progress.
+     *
+     * @throws IOException If the pending writes cannot be written.
+     */
+    void drain() throws IOException {
+        try {
+            flushOnce();
+        } catch (IOException e) {
+            takeFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the background thread and writes everything still pending on the calling thread.
+     * The thread is not joined, since the caller may hold the lock it needs to finish; a
+     * flush it has already started is waited for, and it starts no new one after this.
+     *
+     * @throws IOException If the pending writes cannot be written.
+     */
+    void close() throws IOException {
+        synchronized (this) {
+            isClosing = true;
+            notifyAll();
+        }
+        drain();
+    }
+
+    private void runFlusher() {
+        while (true) {
+            synchronized (this) {
+                while ((!hasPending() || isFailed) && !isClosing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (isClosing) {
+                    return;
+                }
+            }
+
+            if (intervalMillis > 0) {
+                try {
+                    Thread.sleep(intervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            synchronized (this) {
+                if (isClosing) {
+                    return;
+                }
+            }
+            try {
+                flushOnce();
+            } catch (IOException ignored) {
+                // Kept pending and reported through takeFailure()
+            }
+        }
+    }
+
+    /**
+     * Takes all pending writes and flushes them as one batch, copying the tasks if a
+     * snapshot is due. The lock is taken before this queue's own and released before
+     * writing, so a flush never waits for the lock while another flush is in progress.
+     * Flushes never overlap, so journal entries reach the file in order. On failure the
+     * entries are put back in front of anything queued since, and a snapshot is due again.
+     *
+     * @throws IOException If the batch cannot be written.
+     */
+    private void flushOnce() throws IOException {
+        ArrayList<String> batchEntries;
+        Snapshot batchSnapshot = null;
+        synchronized (lock) {
+            boolean hasSnapshot;
+            synchronized (this) {
+                while (isFlushing) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for a flush", e);
+                    }
+                }
+                if (!hasPending()) {
+                    return;
+                }
+                batchEntries = entries;
+                hasSnapshot = isSnapshotDue;
+                entries = new ArrayList<>();
+                isSnapshotDue = false;
+                isFlushing = true;
+            }
+            try {
+                if (hasSnapshot) {
+                    batchSnapshot = sink.takeSnapshot();
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    batchEntries.addAll(entries);
+                    entries = batchEntries;
+                    isSnapshotDue = true;
+                    isFlushing = false;
+                    notifyAll();
+                }
+                throw e;
+            }
+        }
+
+        try {
+            sink.flush(batchEntries, batchSnapshot);
+        } catch (IOException e) {
+            synchronized (this) {
+                batchEntries.addAll(entries);
+                entries = batchEntries;
+                isSnapshotDue |= batchSnapshot != null;
+                failure = e;
+                isFailed = true;
+            }
+            throw e;
+        } finally {
+            synchronized (this) {
+                isFlushing = false;
+                notifyAll();
+            }
+        }
+    }
+
+    private boolean hasPending() {
+        return !entries.isEmpty() || isSnapshotDue;
+    }
+}
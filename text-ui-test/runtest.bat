@@ -5,9 +5,13 @@ if not exist ..\bin mkdir ..\bin
 
 REM delete output from previous run
 if exist ACTUAL.TXT del ACTUAL.TXT
+if exist ACTUAL-BATCH.TXT del ACTUAL-BATCH.TXT
+
+REM delete saved tasks from previous run
+if exist data rmdir /s /q data
 
 REM compile the code into the bin folder
-javac  -cp ..\src\main\java -Xlint:none -d ..\bin ..\src\main\java\*.java
+javac -encoding UTF-8 -cp ..\src\main\java -Xlint:none -d ..\bin ..\src\main\java\kingsim\*.java
 IF ERRORLEVEL 1 (
     echo ********** BUILD FAILURE **********
     exit /b 1
@@ -15,7 +19,12 @@ IF ERRORLEVEL 1 (
 REM no error here, errorlevel == 0
 
 REM run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ..\bin kingsim.KingSIM < input.txt > ACTUAL.TXT
+java -Dfile.encoding=UTF-8 -classpath ..\bin kingsim.KingSIM < input.txt > ACTUAL.TXT
+
+REM run the same commands in batch mode, which must give exactly the same output
+if exist data rmdir /s /q data
+java -Dfile.encoding=UTF-8 -classpath ..\bin kingsim.KingSIM --batch input.txt > ACTUAL-BATCH.TXT
 
 REM compare the output to the expected output
 FC ACTUAL.TXT EXPECTED.TXT
+FC ACTUAL-BATCH.TXT EXPECTED.TXT
@@ -12,22 +12,29 @@ then
     rm ACTUAL.TXT
 fi
 
+# delete saved tasks from previous run
+rm -rf ./data
+
 # compile the code into the bin folder, terminates if error occurred
-if ! javac -cp ../src/main/java -Xlint:none -d ../bin ../src/main/java/*.java
+if ! javac -encoding UTF-8 -cp ../src/main/java -Xlint:none -d ../bin ../src/main/java/kingsim/*.java
 then
     echo "********** BUILD FAILURE **********"
     exit 1
 fi
 
 # run the program, feed commands from input.txt file and redirect the output to the ACTUAL.TXT
-java -classpath ../bin Duke < input.txt > ACTUAL.TXT
+java -Dfile.encoding=UTF-8 -classpath ../bin kingsim.KingSIM < input.txt > ACTUAL.TXT
+
+# run the same commands in batch mode, which must give exactly the same output
+rm -rf ./data
+java -Dfile.encoding=UTF-8 -classpath ../bin kingsim.KingSIM --batch input.txt > ACTUAL-BATCH.TXT
 
 # convert to UNIX format
 cp EXPECTED.TXT EXPECTED-UNIX.TXT
-dos2unix ACTUAL.TXT EXPECTED-UNIX.TXT
+dos2unix ACTUAL.TXT ACTUAL-BATCH.TXT EXPECTED-UNIX.TXT
 
 # compare the output to the expected output
-diff ACTUAL.TXT EXPECTED-UNIX.TXT
+diff ACTUAL.TXT EXPECTED-UNIX.TXT && diff ACTUAL-BATCH.TXT EXPECTED-UNIX.TXT
 if [ $? -eq 0 ]
 then
     echo "Test result: PASSED"